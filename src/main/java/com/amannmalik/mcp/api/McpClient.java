@@ -8,9 +8,11 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface McpClient extends Closeable {
     static McpClient create(McpClientConfiguration config,
@@ -48,6 +50,9 @@ public interface McpClient extends Closeable {
 
     void setLogLevel(LoggingLevel level) throws IOException;
 
+    /// Sends a request whose absolute deadline travels in `_meta`. A `null` or
+    /// non-positive timeout uses the configured default, and a deadline already
+    /// present in `params` is kept when it is earlier.
     JsonRpcMessage request(RequestMethod method, JsonObject params, Duration timeoutMillis) throws IOException;
 
     JsonRpcMessage request(RequestId id, RequestMethod method, JsonObject params, Duration timeoutMillis) throws IOException;
@@ -69,6 +74,24 @@ public interface McpClient extends Closeable {
 
     ListResourceTemplatesResult listResourceTemplates(Cursor cursor) throws IOException;
 
+    /// Every resource on the server, page by page, with the next page requested while
+    /// the current one is consumed. A positive `pageSize` is sent as a hint the server
+    /// may cap. Failures surface as `UncheckedIOException` during iteration.
+    Stream<Resource> resources(int pageSize);
+
+    Stream<ResourceTemplate> resourceTemplates(int pageSize);
+
+    /// The server's resources from a local mirror. After a list change the mirror asks
+    /// only for what changed since its last version, in one request; servers without
+    /// that extension are listed in full. Without list-change notifications from the
+    /// server the mirror is synced on every call.
+    List<Resource> mirroredResources() throws IOException;
+
+    /// Reads `uri` through a byte-bounded cache. Entries of subscribed resources are
+    /// served locally until `notifications/resources/updated` arrives; others are
+    /// revalidated with their etag, so unchanged content is not transferred again.
+    List<ResourceBlock> readResource(URI uri) throws IOException;
+
     void configurePing(Duration intervalMillis, Duration timeoutMillis);
 
     void setSamplingAccessPolicy(SamplingAccessPolicy policy);
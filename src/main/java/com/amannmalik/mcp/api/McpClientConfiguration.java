@@ -29,6 +29,7 @@ public record McpClientConfiguration(
         Duration pingInterval,
         int progressPerSecond,
         Duration rateLimiterWindow,
+        long resourceCacheBytes,
         boolean verbose,
         boolean interactiveSampling,
         List<String> rootDirectories,
@@ -64,6 +65,9 @@ public record McpClientConfiguration(
             throw new IllegalArgumentException("Progress per second must be non-negative");
         }
         rateLimiterWindow = ValidationUtil.requirePositive(rateLimiterWindow, "Rate limiter window");
+        if (resourceCacheBytes < 0) {
+            throw new IllegalArgumentException("Resource cache bytes must be non-negative");
+        }
         rootDirectories = List.copyOf(rootDirectories);
         if (tlsConfiguration == null) {
             throw new IllegalArgumentException("TLS configuration required");
@@ -98,6 +102,7 @@ public record McpClientConfiguration(
                 Duration.ofSeconds(30),
                 10,
                 Duration.ofMinutes(1),
+                32L * 1024 * 1024,
                 false,
                 false,
                 List.of(),
@@ -10,6 +10,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface McpHost extends Closeable {
     static McpHost create(McpHostConfiguration config) throws IOException {
@@ -29,6 +30,14 @@ public interface McpHost extends Closeable {
 
     ListResourceTemplatesResult listResourceTemplates(String clientId, Cursor cursor) throws IOException;
 
+    /// Resources of `clientId` visible to this host, served from the client's mirror
+    /// of the server catalogue. Failures surface as `UncheckedIOException`.
+    Stream<Resource> resources(String clientId);
+
+    /// Tools of `clientId`, streamed with the next page prefetched and the configured
+    /// default page size sent as a hint.
+    Stream<Tool> tools(String clientId);
+
     Closeable subscribeToResource(String clientId, URI uri, Consumer<ResourceUpdate> listener) throws IOException;
 
     ListToolsResult listTools(String clientId, Cursor cursor) throws IOException;
@@ -16,8 +16,17 @@ public record McpServerConfiguration(
         int completionsPerSecond,
         int logsPerSecond,
         int progressPerSecond,
+        int globalRequestsPerSecond,
+        int principalRequestsPerSecond,
+        int sessionRequestsPerSecond,
         long rateLimiterWindowMs,
         int rateLimitErrorCode,
+        int toolConcurrencyLimit,
+        int toolConcurrencyQueue,
+        int overloadErrorCode,
+        Duration toolResultCacheTtl,
+        long toolResultCacheBytes,
+        int maxPageSize,
         String serverName,
         String serverDescription,
         String serverVersion,
@@ -79,12 +88,27 @@ public record McpServerConfiguration(
         if (toolsPerSecond < 0 || completionsPerSecond < 0 || logsPerSecond < 0 || progressPerSecond < 0) {
             throw new IllegalArgumentException("Invalid rate limit configuration");
         }
+        if (globalRequestsPerSecond < 0 || principalRequestsPerSecond < 0 || sessionRequestsPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid rate limit configuration");
+        }
         if (rateLimiterWindowMs <= 0) {
             throw new IllegalArgumentException("Invalid rate limiter window");
         }
         if (rateLimitErrorCode >= 0) {
             throw new IllegalArgumentException("Rate limit error code must be negative");
         }
+        if (toolConcurrencyLimit <= 0 || toolConcurrencyQueue < 0) {
+            throw new IllegalArgumentException("Invalid tool concurrency configuration");
+        }
+        if (overloadErrorCode >= 0) {
+            throw new IllegalArgumentException("Overload error code must be negative");
+        }
+        if (toolResultCacheTtl == null || toolResultCacheTtl.isNegative() || toolResultCacheBytes < 0) {
+            throw new IllegalArgumentException("Invalid tool result cache configuration");
+        }
+        if (maxPageSize <= 0) {
+            throw new IllegalArgumentException("Max page size must be positive");
+        }
         if (initialLogLevel == null) {
             throw new IllegalArgumentException("Invalid policy configuration");
         }
@@ -152,8 +176,17 @@ public record McpServerConfiguration(
                 10,
                 20,
                 20,
+                0,
+                0,
+                0,
                 1_000L,
                 -32_001,
+                64,
+                128,
+                -32_003,
+                Duration.ZERO,
+                0L,
+                1_000,
                 "mcp-java",
                 "MCP Java Reference",
                 "0.1.0",
@@ -231,8 +264,17 @@ public record McpServerConfiguration(
                 completionsPerSecond,
                 logsPerSecond,
                 progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
                 rateLimiterWindowMs,
                 rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
                 serverName,
                 serverDescription,
                 serverVersion,
@@ -292,8 +334,361 @@ public record McpServerConfiguration(
                 completionsPerSecond,
                 logsPerSecond,
                 progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
+                rateLimiterWindowMs,
+                rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
+                serverName,
+                serverDescription,
+                serverVersion,
+                errorProcessing,
+                errorNotInitialized,
+                errorParse,
+                errorInvalidRequest,
+                errorAccessDenied,
+                errorTimeout,
+                serverLoggerName,
+                parserLoggerName,
+                cancellationLoggerName,
+                initialLogLevel,
+                defaultPrincipal,
+                defaultBoundary,
+                transportType,
+                serverPort,
+                allowedOrigins,
+                expectedAudience,
+                jwtSecret,
+                resourceMetadataUrl,
+                authServers,
+                insecure,
+                verbose,
+                httpsPort,
+                tlsConfiguration,
+                requireClientAuth,
+                httpsMode,
+                bindAddress,
+                servletPaths,
+                resourceMetadataPath,
+                resourceMetadataUrlTemplate,
+                sessionIdByteLength,
+                initializeRequestTimeout,
+                strictVersionValidation,
+                sseClientPrefixByteLength,
+                sseEnableHistoryReplay,
+                sseClientTimeout,
+                sseHistoryLimit,
+                httpResponseQueueCapacity,
+                servletAcceptedContentTypes,
+                servletProducedContentTypes,
+                servletEnableAsyncProcessing
+        );
+    }
+
+    public McpServerConfiguration withToolConcurrency(int toolConcurrencyLimit,
+                                                      int toolConcurrencyQueue) {
+        return new McpServerConfiguration(
+                version,
+                compatibilityVersion,
+                defaultTimeoutMs,
+                initialRequestId,
+                supportedVersions,
+                toolsPerSecond,
+                completionsPerSecond,
+                logsPerSecond,
+                progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
+                rateLimiterWindowMs,
+                rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
+                serverName,
+                serverDescription,
+                serverVersion,
+                errorProcessing,
+                errorNotInitialized,
+                errorParse,
+                errorInvalidRequest,
+                errorAccessDenied,
+                errorTimeout,
+                serverLoggerName,
+                parserLoggerName,
+                cancellationLoggerName,
+                initialLogLevel,
+                defaultPrincipal,
+                defaultBoundary,
+                transportType,
+                serverPort,
+                allowedOrigins,
+                expectedAudience,
+                jwtSecret,
+                resourceMetadataUrl,
+                authServers,
+                insecure,
+                verbose,
+                httpsPort,
+                tlsConfiguration,
+                requireClientAuth,
+                httpsMode,
+                bindAddress,
+                servletPaths,
+                resourceMetadataPath,
+                resourceMetadataUrlTemplate,
+                sessionIdByteLength,
+                initializeRequestTimeout,
+                strictVersionValidation,
+                sseClientPrefixByteLength,
+                sseEnableHistoryReplay,
+                sseClientTimeout,
+                sseHistoryLimit,
+                httpResponseQueueCapacity,
+                servletAcceptedContentTypes,
+                servletProducedContentTypes,
+                servletEnableAsyncProcessing
+        );
+    }
+
+    public McpServerConfiguration withToolResultCache(Duration toolResultCacheTtl,
+                                                      long toolResultCacheBytes) {
+        return new McpServerConfiguration(
+                version,
+                compatibilityVersion,
+                defaultTimeoutMs,
+                initialRequestId,
+                supportedVersions,
+                toolsPerSecond,
+                completionsPerSecond,
+                logsPerSecond,
+                progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
+                rateLimiterWindowMs,
+                rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
+                serverName,
+                serverDescription,
+                serverVersion,
+                errorProcessing,
+                errorNotInitialized,
+                errorParse,
+                errorInvalidRequest,
+                errorAccessDenied,
+                errorTimeout,
+                serverLoggerName,
+                parserLoggerName,
+                cancellationLoggerName,
+                initialLogLevel,
+                defaultPrincipal,
+                defaultBoundary,
+                transportType,
+                serverPort,
+                allowedOrigins,
+                expectedAudience,
+                jwtSecret,
+                resourceMetadataUrl,
+                authServers,
+                insecure,
+                verbose,
+                httpsPort,
+                tlsConfiguration,
+                requireClientAuth,
+                httpsMode,
+                bindAddress,
+                servletPaths,
+                resourceMetadataPath,
+                resourceMetadataUrlTemplate,
+                sessionIdByteLength,
+                initializeRequestTimeout,
+                strictVersionValidation,
+                sseClientPrefixByteLength,
+                sseEnableHistoryReplay,
+                sseClientTimeout,
+                sseHistoryLimit,
+                httpResponseQueueCapacity,
+                servletAcceptedContentTypes,
+                servletProducedContentTypes,
+                servletEnableAsyncProcessing
+        );
+    }
+
+    public McpServerConfiguration withMaxPageSize(int maxPageSize) {
+        return new McpServerConfiguration(
+                version,
+                compatibilityVersion,
+                defaultTimeoutMs,
+                initialRequestId,
+                supportedVersions,
+                toolsPerSecond,
+                completionsPerSecond,
+                logsPerSecond,
+                progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
+                rateLimiterWindowMs,
+                rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
+                serverName,
+                serverDescription,
+                serverVersion,
+                errorProcessing,
+                errorNotInitialized,
+                errorParse,
+                errorInvalidRequest,
+                errorAccessDenied,
+                errorTimeout,
+                serverLoggerName,
+                parserLoggerName,
+                cancellationLoggerName,
+                initialLogLevel,
+                defaultPrincipal,
+                defaultBoundary,
+                transportType,
+                serverPort,
+                allowedOrigins,
+                expectedAudience,
+                jwtSecret,
+                resourceMetadataUrl,
+                authServers,
+                insecure,
+                verbose,
+                httpsPort,
+                tlsConfiguration,
+                requireClientAuth,
+                httpsMode,
+                bindAddress,
+                servletPaths,
+                resourceMetadataPath,
+                resourceMetadataUrlTemplate,
+                sessionIdByteLength,
+                initializeRequestTimeout,
+                strictVersionValidation,
+                sseClientPrefixByteLength,
+                sseEnableHistoryReplay,
+                sseClientTimeout,
+                sseHistoryLimit,
+                httpResponseQueueCapacity,
+                servletAcceptedContentTypes,
+                servletProducedContentTypes,
+                servletEnableAsyncProcessing
+        );
+    }
+
+    public McpServerConfiguration withRequestQuotas(int globalRequestsPerSecond,
+                                                    int principalRequestsPerSecond,
+                                                    int sessionRequestsPerSecond) {
+        return new McpServerConfiguration(
+                version,
+                compatibilityVersion,
+                defaultTimeoutMs,
+                initialRequestId,
+                supportedVersions,
+                toolsPerSecond,
+                completionsPerSecond,
+                logsPerSecond,
+                progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
+                rateLimiterWindowMs,
+                rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
+                serverName,
+                serverDescription,
+                serverVersion,
+                errorProcessing,
+                errorNotInitialized,
+                errorParse,
+                errorInvalidRequest,
+                errorAccessDenied,
+                errorTimeout,
+                serverLoggerName,
+                parserLoggerName,
+                cancellationLoggerName,
+                initialLogLevel,
+                defaultPrincipal,
+                defaultBoundary,
+                transportType,
+                serverPort,
+                allowedOrigins,
+                expectedAudience,
+                jwtSecret,
+                resourceMetadataUrl,
+                authServers,
+                insecure,
+                verbose,
+                httpsPort,
+                tlsConfiguration,
+                requireClientAuth,
+                httpsMode,
+                bindAddress,
+                servletPaths,
+                resourceMetadataPath,
+                resourceMetadataUrlTemplate,
+                sessionIdByteLength,
+                initializeRequestTimeout,
+                strictVersionValidation,
+                sseClientPrefixByteLength,
+                sseEnableHistoryReplay,
+                sseClientTimeout,
+                sseHistoryLimit,
+                httpResponseQueueCapacity,
+                servletAcceptedContentTypes,
+                servletProducedContentTypes,
+                servletEnableAsyncProcessing
+        );
+    }
+
+    public McpServerConfiguration withProgressPerSecond(int progressPerSecond) {
+        return new McpServerConfiguration(
+                version,
+                compatibilityVersion,
+                defaultTimeoutMs,
+                initialRequestId,
+                supportedVersions,
+                toolsPerSecond,
+                completionsPerSecond,
+                logsPerSecond,
+                progressPerSecond,
+                globalRequestsPerSecond,
+                principalRequestsPerSecond,
+                sessionRequestsPerSecond,
                 rateLimiterWindowMs,
                 rateLimitErrorCode,
+                toolConcurrencyLimit,
+                toolConcurrencyQueue,
+                overloadErrorCode,
+                toolResultCacheTtl,
+                toolResultCacheBytes,
+                maxPageSize,
                 serverName,
                 serverDescription,
                 serverVersion,
@@ -235,6 +235,7 @@ public final class HostCommand {
                     Duration.ofMillis(0L),
                     20,
                     Duration.ofMillis(1_000L),
+                    32L * 1024 * 1024,
                     clientVerbose,
                     false,
                     List.of(System.getProperty("user.dir")),
@@ -10,6 +10,7 @@ import picocli.CommandLine.ParseResult;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 /// - [Server](specification/2025-06-18/server/index.mdx)
@@ -124,6 +125,42 @@ public final class ServerCommand {
                         .arity("0")
                         .defaultValue("false")
                         .description("Disable HTTP and enforce HTTPS")
+                        .build())
+                .addOption(OptionSpec.builder("--tool-concurrency-limit")
+                        .type(Integer.class)
+                        .description("Most concurrent calls per tool")
+                        .build())
+                .addOption(OptionSpec.builder("--tool-concurrency-queue")
+                        .type(Integer.class)
+                        .description("Calls per tool that may wait for a slot before overload errors")
+                        .build())
+                .addOption(OptionSpec.builder("--tool-result-cache-ttl-ms")
+                        .type(Long.class)
+                        .description("Reuse read-only idempotent tool results for this long (0 disables)")
+                        .build())
+                .addOption(OptionSpec.builder("--tool-result-cache-bytes")
+                        .type(Long.class)
+                        .description("Byte budget for cached tool results")
+                        .build())
+                .addOption(OptionSpec.builder("--global-requests-per-second")
+                        .type(Integer.class)
+                        .description("Rate-limited requests per second across all sessions (0 disables)")
+                        .build())
+                .addOption(OptionSpec.builder("--principal-requests-per-second")
+                        .type(Integer.class)
+                        .description("Rate-limited requests per second for each principal (0 disables)")
+                        .build())
+                .addOption(OptionSpec.builder("--session-requests-per-second")
+                        .type(Integer.class)
+                        .description("Rate-limited requests per second for each session (0 disables)")
+                        .build())
+                .addOption(OptionSpec.builder("--max-page-size")
+                        .type(Integer.class)
+                        .description("Largest page size a client may ask for")
+                        .build())
+                .addOption(OptionSpec.builder("--progress-per-second")
+                        .type(Integer.class)
+                        .description("Progress notifications per second for each token")
                         .build());
         spec.usageMessage().description(
                 "Run MCP server",
@@ -188,6 +225,18 @@ public final class ServerCommand {
                     verbose);
             var tlsConfig = new TlsConfiguration(keystorePath, keystorePassword, keystoreType, truststorePath, truststorePassword, truststoreType, tlsProtocols, cipherSuites);
             config = config.withTls(httpsPort, tlsConfig, requireClientAuth);
+            int concurrencyLimit = parseResult.matchedOptionValue("--tool-concurrency-limit", base.toolConcurrencyLimit());
+            int concurrencyQueue = parseResult.matchedOptionValue("--tool-concurrency-queue", base.toolConcurrencyQueue());
+            config = config.withToolConcurrency(concurrencyLimit, concurrencyQueue);
+            long cacheTtlMs = parseResult.matchedOptionValue("--tool-result-cache-ttl-ms", base.toolResultCacheTtl().toMillis());
+            long cacheBytes = parseResult.matchedOptionValue("--tool-result-cache-bytes", base.toolResultCacheBytes());
+            config = config.withToolResultCache(Duration.ofMillis(cacheTtlMs), cacheBytes);
+            config = config.withRequestQuotas(
+                    parseResult.matchedOptionValue("--global-requests-per-second", base.globalRequestsPerSecond()),
+                    parseResult.matchedOptionValue("--principal-requests-per-second", base.principalRequestsPerSecond()),
+                    parseResult.matchedOptionValue("--session-requests-per-second", base.sessionRequestsPerSecond()));
+            config = config.withMaxPageSize(parseResult.matchedOptionValue("--max-page-size", base.maxPageSize()));
+            config = config.withProgressPerSecond(parseResult.matchedOptionValue("--progress-per-second", base.progressPerSecond()));
             Path instructionsFile = parseResult.matchedOptionValue("--instructions", null);
             var instructions = instructionsFile == null ? null : Files.readString(instructionsFile);
             try (var server = McpServer.create(config, defaultPrincipal(), instructions)) {
@@ -0,0 +1,39 @@
+package com.amannmalik.mcp.codec;
+
+import jakarta.json.*;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/// Absolute request deadline carried in `_meta` as epoch milliseconds, so every hop
+/// can tell how much of the original caller's budget remains.
+public final class DeadlineCodec {
+    public static final String META_KEY = "com.amannmalik.mcp/deadline";
+
+    private DeadlineCodec() {
+    }
+
+    public static Optional<Instant> fromMeta(JsonObject params) {
+        if (params == null || !(params.get("_meta") instanceof JsonObject meta) || !meta.containsKey(META_KEY)) {
+            return Optional.empty();
+        }
+        if (!(meta.get(META_KEY) instanceof JsonNumber n) || !n.isIntegral()) {
+            throw new IllegalArgumentException(META_KEY + " must be an integer");
+        }
+        return Optional.of(Instant.ofEpochMilli(n.longValue()));
+    }
+
+    /// Returns `params` carrying `deadline`, unless it already carries an earlier one.
+    public static JsonObject withDeadline(JsonObject params, Instant deadline) {
+        var existing = fromMeta(params);
+        if (existing.isPresent() && !existing.get().isAfter(deadline)) {
+            return params;
+        }
+        var meta = params != null && params.get("_meta") instanceof JsonObject m
+                ? Json.createObjectBuilder(m)
+                : Json.createObjectBuilder();
+        meta.add(META_KEY, deadline.toEpochMilli());
+        var builder = params == null ? Json.createObjectBuilder() : Json.createObjectBuilder(params);
+        return builder.add("_meta", meta).build();
+    }
+}
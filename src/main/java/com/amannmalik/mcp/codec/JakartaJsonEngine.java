@@ -0,0 +1,63 @@
+package com.amannmalik.mcp.codec;
+
+import com.amannmalik.mcp.spi.JsonEngine;
+import jakarta.json.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/// Default [JsonEngine] backed by the jakarta.json provider on the module path.
+/// Reader and writer factories are resolved once rather than per message.
+public final class JakartaJsonEngine implements JsonEngine {
+    private static final JsonReaderFactory READERS = Json.createReaderFactory(Map.of());
+    private static final JsonWriterFactory WRITERS = Json.createWriterFactory(Map.of());
+
+    public JakartaJsonEngine() {
+    }
+
+    @Override
+    public JsonObject read(String text) {
+        try (var reader = READERS.createReader(new StringReader(text))) {
+            return reader.readObject();
+        }
+    }
+
+    @Override
+    public JsonObject read(InputStream in) {
+        try (var reader = READERS.createReader(in)) {
+            return reader.readObject();
+        }
+    }
+
+    @Override
+    public JsonObject read(byte[] utf8) {
+        try (var reader = READERS.createReader(new ByteArrayInputStream(utf8), StandardCharsets.UTF_8)) {
+            return reader.readObject();
+        }
+    }
+
+    @Override
+    public String write(JsonObject value) {
+        if (value instanceof JsonFragment fragment) {
+            return fragment.toString();
+        }
+        var out = new StringWriter();
+        try (var writer = WRITERS.createWriter(out)) {
+            writer.writeObject(value);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public byte[] writeBytes(JsonObject value) {
+        if (value instanceof JsonFragment fragment) {
+            return fragment.utf8();
+        }
+        var out = new ByteArrayOutputStream();
+        try (var writer = WRITERS.createWriter(out, StandardCharsets.UTF_8)) {
+            writer.writeObject(value);
+        }
+        return out.toByteArray();
+    }
+}
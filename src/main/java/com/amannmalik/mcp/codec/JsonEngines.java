@@ -0,0 +1,18 @@
+package com.amannmalik.mcp.codec;
+
+import com.amannmalik.mcp.spi.JsonEngine;
+import com.amannmalik.mcp.util.ServiceLoaders;
+
+public final class JsonEngines {
+    private JsonEngines() {
+    }
+
+    public static JsonEngine current() {
+        return Holder.ENGINE;
+    }
+
+    private static final class Holder {
+        private static final JsonEngine ENGINE = ServiceLoaders.loadOptional(JsonEngine.class)
+                .orElseGet(JakartaJsonEngine::new);
+    }
+}
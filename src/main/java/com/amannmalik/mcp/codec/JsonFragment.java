@@ -0,0 +1,190 @@
+package com.amannmalik.mcp.codec;
+
+import com.amannmalik.mcp.api.RequestId;
+import com.amannmalik.mcp.jsonrpc.JsonRpc;
+import jakarta.json.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+
+/// A `JsonObject` whose UTF-8 encoding is computed once. Static results and
+/// notification bodies are interned as fragments so that sending them only
+/// splices the envelope and request id around the cached bytes. The tree of an
+/// envelope is built only if something reads it as a `JsonObject`.
+public final class JsonFragment extends AbstractMap<String, JsonValue> implements JsonObject {
+    public static final JsonFragment EMPTY = of(JsonValue.EMPTY_JSON_OBJECT);
+    private static final byte[] RESPONSE_HEAD = ascii("{\"jsonrpc\":\"" + JsonRpc.VERSION + "\",\"id\":");
+    private static final byte[] RESULT_KEY = ascii(",\"result\":");
+    private static final byte[] NOTIFICATION_HEAD = ascii("{\"jsonrpc\":\"" + JsonRpc.VERSION + "\",\"method\":");
+    private static final byte[] PARAMS_KEY = ascii(",\"params\":");
+
+    private final byte[] utf8;
+    private Supplier<JsonObject> tree;
+    private volatile JsonObject value;
+
+    private JsonFragment(JsonObject value, byte[] utf8) {
+        this.value = value;
+        this.utf8 = utf8;
+    }
+
+    private JsonFragment(Supplier<JsonObject> tree, byte[] utf8) {
+        this.tree = tree;
+        this.utf8 = utf8;
+    }
+
+    public static JsonFragment of(JsonObject value) {
+        Objects.requireNonNull(value, "value");
+        if (value instanceof JsonFragment f) {
+            return f;
+        }
+        return new JsonFragment(value, JsonEngines.current().writeBytes(value));
+    }
+
+    static JsonFragment response(RequestId id, JsonFragment result) {
+        var bytes = splice(RESPONSE_HEAD, encodeId(id), RESULT_KEY, result.utf8);
+        return new JsonFragment(() -> Json.createObjectBuilder()
+                .add("jsonrpc", JsonRpc.VERSION)
+                .add("id", RequestIdCodec.toJsonValue(id))
+                .add("result", result.value())
+                .build(), bytes);
+    }
+
+    static JsonFragment notification(String method, JsonFragment params) {
+        var bytes = splice(NOTIFICATION_HEAD, Json.createValue(method).toString().getBytes(StandardCharsets.UTF_8),
+                PARAMS_KEY, params.utf8);
+        return new JsonFragment(() -> Json.createObjectBuilder()
+                .add("jsonrpc", JsonRpc.VERSION)
+                .add("method", method)
+                .add("params", params.value())
+                .build(), bytes);
+    }
+
+    private static byte[] encodeId(RequestId id) {
+        return switch (id) {
+            case RequestId.NumericId n -> ascii(Long.toString(n.value()));
+            case RequestId.NullId ignored -> ascii("null");
+            case RequestId.StringId ignored -> RequestIdCodec.toJsonValue(id).toString().getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    private static byte[] splice(byte[] head, byte[] key, byte[] separator, byte[] body) {
+        var out = new byte[head.length + key.length + separator.length + body.length + 1];
+        var at = 0;
+        for (var part : new byte[][]{head, key, separator, body}) {
+            System.arraycopy(part, 0, out, at, part.length);
+            at += part.length;
+        }
+        out[at] = '}';
+        return out;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /// Cached encoding; callers must not modify the returned array.
+    public byte[] utf8() {
+        return utf8;
+    }
+
+    private JsonObject value() {
+        var v = value;
+        if (v == null) {
+            synchronized (this) {
+                v = value;
+                if (v == null) {
+                    v = tree.get();
+                    value = v;
+                    tree = null;
+                }
+            }
+        }
+        return v;
+    }
+
+    @Override
+    public Set<Entry<String, JsonValue>> entrySet() {
+        return value().entrySet();
+    }
+
+    @Override
+    public JsonValue get(Object key) {
+        return value().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return value().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return value().size();
+    }
+
+    @Override
+    public JsonArray getJsonArray(String name) {
+        return value().getJsonArray(name);
+    }
+
+    @Override
+    public JsonObject getJsonObject(String name) {
+        return value().getJsonObject(name);
+    }
+
+    @Override
+    public JsonNumber getJsonNumber(String name) {
+        return value().getJsonNumber(name);
+    }
+
+    @Override
+    public JsonString getJsonString(String name) {
+        return value().getJsonString(name);
+    }
+
+    @Override
+    public String getString(String name) {
+        return value().getString(name);
+    }
+
+    @Override
+    public String getString(String name, String defaultValue) {
+        return value().getString(name, defaultValue);
+    }
+
+    @Override
+    public int getInt(String name) {
+        return value().getInt(name);
+    }
+
+    @Override
+    public int getInt(String name, int defaultValue) {
+        return value().getInt(name, defaultValue);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return value().getBoolean(name);
+    }
+
+    @Override
+    public boolean getBoolean(String name, boolean defaultValue) {
+        return value().getBoolean(name, defaultValue);
+    }
+
+    @Override
+    public boolean isNull(String name) {
+        return value().isNull(name);
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.OBJECT;
+    }
+
+    @Override
+    public String toString() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
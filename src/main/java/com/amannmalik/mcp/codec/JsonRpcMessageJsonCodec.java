@@ -83,6 +83,12 @@ public class JsonRpcMessageJsonCodec implements JsonCodec<JsonRpcMessage> {
 
     @Override
     public JsonObject toJson(JsonRpcMessage msg) {
+        if (msg instanceof JsonRpcResponse r && r.result() instanceof JsonFragment f) {
+            return JsonFragment.response(r.id(), f);
+        }
+        if (msg instanceof JsonRpcNotification n && n.params() instanceof JsonFragment f) {
+            return JsonFragment.notification(n.method(), f);
+        }
         var builder = Json.createObjectBuilder().add("jsonrpc", JsonRpc.VERSION);
         return switch (msg) {
             case JsonRpcRequest r -> {
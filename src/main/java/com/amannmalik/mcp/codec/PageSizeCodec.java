@@ -0,0 +1,36 @@
+package com.amannmalik.mcp.codec;
+
+import jakarta.json.*;
+
+import java.util.Optional;
+
+/// Client-requested page size carried in `_meta` of paginated requests. Servers treat
+/// it as a hint, capped at their own limit.
+public final class PageSizeCodec {
+    public static final String META_KEY = "com.amannmalik.mcp/pageSize";
+
+    private PageSizeCodec() {
+    }
+
+    public static Optional<Integer> fromMeta(JsonObject params) {
+        if (params == null || !(params.get("_meta") instanceof JsonObject meta) || !meta.containsKey(META_KEY)) {
+            return Optional.empty();
+        }
+        if (!(meta.get(META_KEY) instanceof JsonNumber n) || !n.isIntegral() || n.longValue() <= 0) {
+            throw new IllegalArgumentException(META_KEY + " must be a positive integer");
+        }
+        return Optional.of((int) Math.min(Integer.MAX_VALUE, n.longValue()));
+    }
+
+    public static JsonObject withPageSize(JsonObject params, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        var meta = params != null && params.get("_meta") instanceof JsonObject m
+                ? Json.createObjectBuilder(m)
+                : Json.createObjectBuilder();
+        meta.add(META_KEY, pageSize);
+        var builder = params == null ? Json.createObjectBuilder() : Json.createObjectBuilder(params);
+        return builder.add("_meta", meta).build();
+    }
+}
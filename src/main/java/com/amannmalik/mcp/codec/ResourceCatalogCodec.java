@@ -0,0 +1,100 @@
+package com.amannmalik.mcp.codec;
+
+import com.amannmalik.mcp.spi.Resource;
+import com.amannmalik.mcp.spi.ResourceChanges;
+import jakarta.json.*;
+
+import java.net.URI;
+import java.util.*;
+
+/// Incremental `resources/list` carried in `_meta`. A request naming the catalogue
+/// version it last saw (empty for none) is answered in one unpaginated result whose
+/// `resources` are the added and updated entries, with the new version and the
+/// updated and removed URIs under [#CATALOG_KEY]. Servers without the extension, or
+/// whose resources cannot report list changes, answer with an ordinary first page,
+/// which [#fromResult(JsonObject)] reports as empty.
+public final class ResourceCatalogCodec {
+    public static final String SINCE_KEY = "com.amannmalik.mcp/catalogSince";
+    public static final String CATALOG_KEY = "com.amannmalik.mcp/catalog";
+    private static final JsonCodec<Resource> RESOURCE_CODEC = new ResourceAbstractEntityCodec();
+
+    private ResourceCatalogCodec() {
+    }
+
+    public static Optional<String> since(JsonObject params) {
+        if (params == null || !(params.get("_meta") instanceof JsonObject meta) || !meta.containsKey(SINCE_KEY)) {
+            return Optional.empty();
+        }
+        if (!(meta.get(SINCE_KEY) instanceof JsonString s)) {
+            throw new IllegalArgumentException(SINCE_KEY + " must be a string");
+        }
+        return Optional.of(s.getString());
+    }
+
+    public static JsonObject withSince(JsonObject params, String version) {
+        Objects.requireNonNull(version, "version");
+        var meta = params != null && params.get("_meta") instanceof JsonObject m
+                ? Json.createObjectBuilder(m)
+                : Json.createObjectBuilder();
+        meta.add(SINCE_KEY, version);
+        var builder = params == null ? Json.createObjectBuilder() : Json.createObjectBuilder(params);
+        return builder.add("_meta", meta).build();
+    }
+
+    public static JsonObject toJson(ResourceChanges changes) {
+        var resources = Json.createArrayBuilder();
+        changes.added().forEach(r -> resources.add(RESOURCE_CODEC.toJson(r)));
+        var updated = Json.createArrayBuilder();
+        changes.updated().forEach(r -> {
+            resources.add(RESOURCE_CODEC.toJson(r));
+            updated.add(r.uri().toString());
+        });
+        var removed = Json.createArrayBuilder();
+        changes.removed().forEach(uri -> removed.add(uri.toString()));
+        return Json.createObjectBuilder()
+                .add("resources", resources)
+                .add("_meta", Json.createObjectBuilder()
+                        .add(CATALOG_KEY, Json.createObjectBuilder()
+                                .add("version", changes.version())
+                                .add("reset", changes.reset())
+                                .add("updated", updated)
+                                .add("removed", removed)))
+                .build();
+    }
+
+    public static Optional<ResourceChanges> fromResult(JsonObject result) {
+        if (result == null || !(result.get("_meta") instanceof JsonObject meta)
+                || !(meta.get(CATALOG_KEY) instanceof JsonObject catalog)) {
+            return Optional.empty();
+        }
+        if (!(catalog.get("version") instanceof JsonString version)) {
+            throw new IllegalArgumentException(CATALOG_KEY + " version must be a string");
+        }
+        var updatedUris = new HashSet<URI>(uris(catalog, "updated"));
+        var added = new ArrayList<Resource>();
+        var updated = new ArrayList<Resource>();
+        for (var value : result.getJsonArray("resources")) {
+            if (!(value instanceof JsonObject obj)) {
+                throw new IllegalArgumentException("resource must be an object");
+            }
+            var resource = RESOURCE_CODEC.fromJson(obj);
+            (updatedUris.contains(resource.uri()) ? updated : added).add(resource);
+        }
+        return Optional.of(new ResourceChanges(version.getString(),
+                catalog.getBoolean("reset", false), added, updated, uris(catalog, "removed")));
+    }
+
+    private static List<URI> uris(JsonObject catalog, String key) {
+        if (!(catalog.get(key) instanceof JsonArray array)) {
+            return List.of();
+        }
+        var uris = new ArrayList<URI>(array.size());
+        for (var value : array) {
+            if (!(value instanceof JsonString s)) {
+                throw new IllegalArgumentException(CATALOG_KEY + " " + key + " must hold strings");
+            }
+            uris.add(URI.create(s.getString()));
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,107 @@
+package com.amannmalik.mcp.codec;
+
+import com.amannmalik.mcp.spi.ResourceBlock;
+import com.amannmalik.mcp.util.Base64Util;
+import jakarta.json.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/// Content version of a `resources/read` result carried in `_meta`. A server stamps
+/// results with an etag; a client sending that etag back gets an empty result marked
+/// not modified when the content is unchanged. The etag hashes the block's fields, or
+/// the provider's own content version when it has one.
+public final class ResourceVersionCodec {
+    public static final String ETAG_KEY = "com.amannmalik.mcp/etag";
+    public static final String NOT_MODIFIED_KEY = "com.amannmalik.mcp/notModified";
+    private static final int ETAG_BYTES = 16;
+
+    private ResourceVersionCodec() {
+    }
+
+    public static String etag(ResourceBlock block) {
+        var digest = digest();
+        update(digest, block instanceof ResourceBlock.Text ? "text" : "blob");
+        update(digest, block.mimeType());
+        update(digest, block._meta() == null ? null : block._meta().toString());
+        switch (block) {
+            case ResourceBlock.Text text -> update(digest, text.text());
+            case ResourceBlock.Binary binary -> digest.update(binary.blob());
+        }
+        return finish(digest);
+    }
+
+    /// Etag for a provider-supplied content version; never equal to a content etag.
+    public static String etag(String version) {
+        var digest = digest();
+        update(digest, "version");
+        update(digest, version);
+        return finish(digest);
+    }
+
+    public static JsonObject meta(String etag) {
+        return Json.createObjectBuilder().add(ETAG_KEY, etag).build();
+    }
+
+    public static Optional<String> fromMeta(JsonObject obj) {
+        if (obj == null || !(obj.get("_meta") instanceof JsonObject meta) || !meta.containsKey(ETAG_KEY)) {
+            return Optional.empty();
+        }
+        if (!(meta.get(ETAG_KEY) instanceof JsonString s)) {
+            throw new IllegalArgumentException(ETAG_KEY + " must be a string");
+        }
+        return Optional.of(s.getString());
+    }
+
+    public static JsonObject withEtag(JsonObject obj, String etag) {
+        var meta = obj != null && obj.get("_meta") instanceof JsonObject m
+                ? Json.createObjectBuilder(m)
+                : Json.createObjectBuilder();
+        meta.add(ETAG_KEY, etag);
+        var builder = obj == null ? Json.createObjectBuilder() : Json.createObjectBuilder(obj);
+        return builder.add("_meta", meta).build();
+    }
+
+    public static JsonObject notModified(String etag) {
+        return Json.createObjectBuilder()
+                .add("contents", JsonValue.EMPTY_JSON_ARRAY)
+                .add("_meta", Json.createObjectBuilder()
+                        .add(ETAG_KEY, etag)
+                        .add(NOT_MODIFIED_KEY, true))
+                .build();
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Length-prefixed so adjacent fields cannot run together.
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(new byte[]{(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                (byte) (bytes.length >>> 8), (byte) bytes.length});
+        digest.update(bytes);
+    }
+
+    private static String finish(MessageDigest digest) {
+        return Base64Util.encodeUrl(Arrays.copyOf(digest.digest(), ETAG_BYTES));
+    }
+
+    public static boolean isNotModified(JsonObject result) {
+        return result != null
+                && result.get("_meta") instanceof JsonObject meta
+                && JsonValue.TRUE.equals(meta.get(NOT_MODIFIED_KEY));
+    }
+}
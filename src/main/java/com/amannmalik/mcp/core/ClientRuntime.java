@@ -18,6 +18,7 @@ import java.net.URI;
 import java.net.http.*;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,6 +26,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
     private static final JsonCodec<ResourceUpdatedNotification> RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC = new ResourceUpdatedNotificationAbstractEntityCodec();
@@ -34,9 +36,13 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
     private static final JsonCodec<UnsubscribeRequest> UNSUBSCRIBE_REQUEST_JSON_CODEC = new UnsubscribeRequestAbstractEntityCodec();
     private static final JsonCodec<SetLevelRequest> SET_LEVEL_REQUEST_JSON_CODEC = new SetLevelRequestAbstractEntityCodec();
     private static final JsonCodec<PaginatedRequest> PAGINATED_REQUEST_CODEC = PaginatedRequestCodec.INSTANCE;
+    private static final JsonCodec<ReadResourceRequest> READ_RESOURCE_REQUEST_CODEC = new ReadResourceRequestAbstractEntityCodec();
+    private static final JsonCodec<ReadResourceResult> READ_RESOURCE_RESULT_CODEC = new ReadResourceResultJsonCodec();
     private static final CancelledNotificationJsonCodec CANCELLED_NOTIFICATION_JSON_CODEC = new CancelledNotificationJsonCodec();
     private static final JsonCodec<LoggingMessageNotification> LOGGING_MESSAGE_NOTIFICATION_JSON_CODEC = new LoggingMessageNotificationAbstractEntityCodec();
     private static final JsonCodec<ProgressNotification> PROGRESS_NOTIFICATION_JSON_CODEC = new ProgressNotificationJsonCodec();
+    private static final JsonFragment ROOTS_LIST_CHANGED_PARAMS = JsonFragment.of(
+            AbstractEntityCodec.empty(RootsListChangedNotification::new).toJson(new RootsListChangedNotification()));
     private static final Logger LOG = PlatformLog.get(ClientRuntime.class);
     private final McpClientConfiguration config;
     private final ClientInfo info;
@@ -47,6 +53,8 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
     private final ElicitationProvider elicitation;
     private final Listener listener;
     private final Map<URI, Consumer<ResourceUpdate>> resourceListeners = new ConcurrentHashMap<>();
+    private final ResourceContentCache resourceCache;
+    private final ResourceMirror resourceMirror = new ResourceMirror();
     private final Duration initializationTimeout;
     private final Duration requestTimeout;
     private final AtomicBoolean connected = new AtomicBoolean();
@@ -119,7 +127,8 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         this.pingTimeout = config.pingTimeout();
         this.initializationTimeout = config.initializeRequestTimeout();
         this.requestTimeout = config.defaultReceiveTimeout();
-        registerRequest(RequestMethod.SAMPLING_CREATE_MESSAGE, this::handleCreateMessage);
+        this.resourceCache = new ResourceContentCache(config.resourceCacheBytes());
+        registerCancellableRequest(RequestMethod.SAMPLING_CREATE_MESSAGE, this::handleCreateMessage);
         registerRequest(RequestMethod.ROOTS_LIST, this::handleListRoots);
         registerRequest(RequestMethod.ELICITATION_CREATE, this::handleElicit);
         registerRequest(RequestMethod.PING, this::handlePing);
@@ -267,6 +276,8 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         stopBackgroundTasks();
         transport.close();
         resourceListeners.clear();
+        resourceCache.clear();
+        resourceMirror.clear();
         if (rootsSubscription != null) {
             CloseUtil.close(rootsSubscription);
             rootsSubscription = null;
@@ -341,15 +352,24 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         if (!connected.get()) {
             return JsonRpcError.of(new RequestId.NumericId(0), -32002, "Server not initialized");
         }
+        var now = Instant.now();
+        var budget = now.plus(timeoutMillis == null || !timeoutMillis.isPositive() ? requestTimeout : timeoutMillis);
+        var deadline = DeadlineCodec.fromMeta(params).filter(d -> d.isBefore(budget)).orElse(budget);
+        if (!deadline.isAfter(now)) {
+            throw new IOException("Request deadline exceeded");
+        }
+        if (method != RequestMethod.PING) {
+            // a ping is answered inline with no work to bound, and its params must stay as sent
+            params = DeadlineCodec.withDeadline(params, deadline);
+        }
         try {
-            var future = new CompletableFuture<JsonRpcMessage>();
-            pending.put(id, future);
             progress.register(id, params);
-            send(new JsonRpcRequest(id, method.method(), params));
+            var future = expect(id, Duration.between(now, deadline), "Request timed out");
             try {
-                return super.await(id, future, timeoutMillis);
+                send(new JsonRpcRequest(id, method.method(), params));
+                return await(future);
             } finally {
-                pending.remove(id);
+                future.cancel(false);
                 progress.release(id);
             }
         } catch (UnauthorizedException e) {
@@ -396,8 +416,57 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
 
     @Override
     public ListResourcesResult listResources(Cursor cursor) throws IOException {
+        return listResources(cursor, 0);
+    }
+
+    @Override
+    public ListResourceTemplatesResult listResourceTemplates(Cursor cursor) throws IOException {
+        return listResourceTemplates(cursor, 0);
+    }
+
+    @Override
+    public Stream<Resource> resources(int pageSize) {
+        return PrefetchingIterator.stream(cursor -> {
+            var result = listResources(cursor, pageSize);
+            return new Pagination.Page<>(result.resources(), result.nextCursor());
+        });
+    }
+
+    @Override
+    public Stream<ResourceTemplate> resourceTemplates(int pageSize) {
+        return PrefetchingIterator.stream(cursor -> {
+            var result = listResourceTemplates(cursor, pageSize);
+            return new Pagination.Page<>(result.resourceTemplates(), result.nextCursor());
+        });
+    }
+
+    @Override
+    public List<Resource> mirroredResources() throws IOException {
+        if (serverFeatures.contains(ServerFeature.RESOURCES_LIST_CHANGED)) {
+            var current = resourceMirror.fresh();
+            if (current.isPresent()) {
+                return current.get();
+            }
+        }
+        var observed = resourceMirror.generation();
+        var params = ResourceCatalogCodec.withSince(
+                PAGINATED_REQUEST_CODEC.toJson(new PaginatedRequest(null, null)), resourceMirror.version());
+        var result = JsonRpc.expectResponse(request(RequestMethod.RESOURCES_LIST, params, requestTimeout)).result();
+        var changes = ResourceCatalogCodec.fromResult(result);
+        if (changes.isPresent()) {
+            return resourceMirror.apply(changes.get(), observed);
+        }
+        try (var all = resources(0)) {
+            return resourceMirror.replace(all.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ListResourcesResult listResources(Cursor cursor, int pageSize) throws IOException {
         return list(
                 cursor,
+                pageSize,
                 RequestMethod.RESOURCES_LIST,
                 token -> PAGINATED_REQUEST_CODEC.toJson(new PaginatedRequest(token, null)),
                 json -> AbstractEntityCodec.paginatedResult(
@@ -410,10 +479,10 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         );
     }
 
-    @Override
-    public ListResourceTemplatesResult listResourceTemplates(Cursor cursor) throws IOException {
+    private ListResourceTemplatesResult listResourceTemplates(Cursor cursor, int pageSize) throws IOException {
         return list(
                 cursor,
+                pageSize,
                 RequestMethod.RESOURCES_TEMPLATES_LIST,
                 token -> PAGINATED_REQUEST_CODEC.toJson(new PaginatedRequest(token, null)),
                 json -> AbstractEntityCodec.paginatedResult(
@@ -519,15 +588,48 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
 
     private <T> T list(
             Cursor cursor,
+            int pageSize,
             RequestMethod method,
             Function<String, JsonObject> requestJson,
             Function<JsonObject, T> resultParser) throws IOException {
         var token = cursor instanceof Cursor.Token(var value) ? value : null;
         var params = requestJson.apply(token);
+        if (pageSize > 0) {
+            params = PageSizeCodec.withPageSize(params, pageSize);
+        }
         var resp = JsonRpc.expectResponse(request(method, params, requestTimeout));
         return resultParser.apply(resp.result());
     }
 
+    @Override
+    public List<ResourceBlock> readResource(URI uri) throws IOException {
+        Objects.requireNonNull(uri, "uri");
+        if (!resourceCache.enabled()) {
+            var resp = JsonRpc.expectResponse(request(RequestMethod.RESOURCES_READ,
+                    READ_RESOURCE_REQUEST_CODEC.toJson(new ReadResourceRequest(uri, null)), requestTimeout));
+            return READ_RESOURCE_RESULT_CODEC.fromJson(resp.result()).contents();
+        }
+        var cached = resourceCache.get(uri);
+        if (cached.isPresent() && cached.get().fresh()) {
+            return cached.get().contents();
+        }
+        var generation = resourceCache.generation();
+        var params = READ_RESOURCE_REQUEST_CODEC.toJson(new ReadResourceRequest(uri, null));
+        if (cached.isPresent()) {
+            params = ResourceVersionCodec.withEtag(params, cached.get().etag());
+        }
+        var result = JsonRpc.expectResponse(request(RequestMethod.RESOURCES_READ, params, requestTimeout)).result();
+        var subscribed = resourceListeners.containsKey(uri);
+        if (cached.isPresent() && ResourceVersionCodec.isNotModified(result)) {
+            resourceCache.put(uri, cached.get().contents(), cached.get().etag(), subscribed, generation);
+            return cached.get().contents();
+        }
+        var contents = READ_RESOURCE_RESULT_CODEC.fromJson(result).contents();
+        ResourceVersionCodec.fromMeta(result)
+                .ifPresent(etag -> resourceCache.put(uri, contents, etag, subscribed, generation));
+        return contents;
+    }
+
     @Override
     public Closeable subscribeResource(URI uri, Consumer<ResourceUpdate> listener) throws IOException {
         if (!serverFeatures.contains(ServerFeature.RESOURCES_SUBSCRIBE)) {
@@ -536,13 +638,24 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         if (listener == null) {
             throw new IllegalArgumentException("listener required");
         }
-        JsonRpc.expectResponse(request(
-                RequestMethod.RESOURCES_SUBSCRIBE,
-                SUBSCRIBE_REQUEST_JSON_CODEC.toJson(new SubscribeRequest(uri, null)), requestTimeout
-        ));
-        resourceListeners.put(uri, listener);
+        // registered first: the server sends the initial update right after its response
+        var previous = resourceListeners.put(uri, listener);
+        try {
+            JsonRpc.expectResponse(request(
+                    RequestMethod.RESOURCES_SUBSCRIBE,
+                    SUBSCRIBE_REQUEST_JSON_CODEC.toJson(new SubscribeRequest(uri, null)), requestTimeout
+            ));
+        } catch (IOException | RuntimeException e) {
+            if (previous == null) {
+                resourceListeners.remove(uri, listener);
+            } else {
+                resourceListeners.replace(uri, listener, previous);
+            }
+            throw e;
+        }
         return () -> {
             resourceListeners.remove(uri);
+            resourceCache.invalidate(uri);
             try {
                 request(
                         RequestMethod.RESOURCES_UNSUBSCRIBE,
@@ -613,9 +726,9 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
         }
         try {
             rootsSubscription = roots.onListChanged(() -> {
+                resourceMirror.invalidate();
                 try {
-                    var params = AbstractEntityCodec.empty(RootsListChangedNotification::new).toJson(new RootsListChangedNotification());
-                    send(new JsonRpcNotification(NotificationMethod.ROOTS_LIST_CHANGED.method(), params));
+                    send(new JsonRpcNotification(NotificationMethod.ROOTS_LIST_CHANGED.method(), ROOTS_LIST_CHANGED_PARAMS));
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -696,7 +809,7 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
                 return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
             }
         }
-        return new JsonRpcResponse(req.id(), Json.createObjectBuilder().build());
+        return new JsonRpcResponse(req.id(), JsonFragment.EMPTY);
     }
 
     private void requireCapability(RequestMethod method) {
@@ -725,6 +838,7 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
 
     private void handleResourcesListChanged(JsonRpcNotification note) {
         RESOURCE_LIST_CHANGED_NOTIFICATION_JSON_CODEC.fromJson(note.params());
+        resourceMirror.invalidate();
         listener.onResourceListChanged();
     }
 
@@ -733,6 +847,7 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
             return;
         }
         var run = RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC.fromJson(note.params());
+        resourceCache.invalidate(run.uri());
         var listener = resourceListeners.get(run.uri());
         if (listener != null) {
             listener.accept(new ResourceUpdate(run.uri(), run.title()));
@@ -747,7 +862,6 @@ public final class ClientRuntime extends JsonRpcEndpoint implements McpClient {
     private void cancelled(JsonRpcNotification note) {
         var cn = CANCELLED_NOTIFICATION_JSON_CODEC.fromJson(note.params());
         var reason = progress.cancel(cn.requestId(), cn.reason());
-        progress.release(cn.requestId());
         reason.ifPresent(value ->
                 LOG.log(Logger.Level.INFO, () -> "Request " + cn.requestId() + " cancelled: " + value));
     }
@@ -0,0 +1,116 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.util.ValidationUtil;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Adaptive per-key concurrency limit. Each key starts at a small limit that grows
+/// additively while calls complete near the lowest latency seen and shrinks
+/// multiplicatively when latency inflates or calls fail, between one and `maxLimit`.
+/// Callers over the limit wait in a bounded queue; once that is full they are
+/// rejected immediately.
+final class ConcurrencyLimiter {
+    private static final double INITIAL_LIMIT = 4.0;
+    private static final double BACKOFF = 0.9;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    /// Weight of a new sample in the decaying minimum, so the baseline can recover
+    /// after a period of slow calls.
+    private static final double MIN_RTT_DECAY = 0.01;
+
+    private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+    private final int maxLimit;
+    private final int queueCapacity;
+
+    ConcurrencyLimiter(int maxLimit, int queueCapacity) {
+        this.maxLimit = ValidationUtil.requirePositive(maxLimit, "maxLimit");
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must be non-negative");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /// Waits at most `maxWait` for a slot; empty if the queue is full, the wait
+    /// expires or the caller is interrupted.
+    Optional<Permit> acquire(String key, Duration maxWait) {
+        Objects.requireNonNull(key, "key");
+        return limits.computeIfAbsent(key, k -> new Limit()).acquire(maxWait);
+    }
+
+    final class Permit {
+        private final Limit limit;
+        private final long started = System.nanoTime();
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+        }
+
+        void release(boolean success) {
+            limit.release(System.nanoTime() - started, success);
+        }
+    }
+
+    private final class Limit {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private double limit = Math.min(INITIAL_LIMIT, maxLimit);
+        private double minRtt = Double.NaN;
+        private int inFlight;
+        private int waiting;
+
+        Optional<Permit> acquire(Duration maxWait) {
+            var nanos = maxWait.toNanos();
+            lock.lock();
+            try {
+                if (inFlight >= (int) limit) {
+                    if (waiting >= queueCapacity) {
+                        return Optional.empty();
+                    }
+                    waiting++;
+                    try {
+                        while (inFlight >= (int) limit) {
+                            if (nanos <= 0L) {
+                                return Optional.empty();
+                            }
+                            nanos = available.awaitNanos(nanos);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return Optional.empty();
+                    } finally {
+                        waiting--;
+                    }
+                }
+                inFlight++;
+                return Optional.of(new Permit(this));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(long rtt, boolean success) {
+            lock.lock();
+            try {
+                var saturated = inFlight >= (int) limit;
+                inFlight--;
+                if (Double.isNaN(minRtt) || rtt < minRtt) {
+                    minRtt = rtt;
+                } else {
+                    minRtt += (rtt - minRtt) * MIN_RTT_DECAY;
+                }
+                if (!success || rtt > minRtt * LATENCY_TOLERANCE) {
+                    limit = Math.max(1.0, limit * BACKOFF);
+                } else if (saturated) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
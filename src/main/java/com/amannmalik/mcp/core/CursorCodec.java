@@ -4,12 +4,53 @@ import com.amannmalik.mcp.spi.Cursor;
 import com.amannmalik.mcp.util.Base64Util;
 import com.amannmalik.mcp.util.ValidationUtil;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
 
+/// Cursor tokens come in two forms: a base64url offset, and a keyset token
+/// `k1.<version>.<key>.<mac>` carrying the catalogue version and the last key served.
+/// Keyset tokens are signed so clients cannot forge positions; constructing a token
+/// only checks its shape, and the signature is checked when a server resumes from it.
+/// The key is read from [#KEY_PROPERTY] (base64url, at least 32 bytes) so cursors
+/// stay valid across restarts and replicas; without it each process uses a random key.
 public final class CursorCodec {
+    public static final String KEY_PROPERTY = "com.amannmalik.mcp.cursor.key";
+    private static final String KEYSET_PREFIX = "k1.";
+    private static final int MIN_KEY_BYTES = 32;
+
     private CursorCodec() {
     }
 
+    public static Cursor.Token afterKey(String key, long version) {
+        if (key == null) {
+            throw new IllegalArgumentException("key required");
+        }
+        var body = KEYSET_PREFIX + Long.toString(version, 36) + "." + Base64Util.encodeUrl(key.getBytes(StandardCharsets.UTF_8));
+        return new Cursor.Token(body + "." + sign(body));
+    }
+
+    /// The last key served before `cursor`, empty at the start of the listing.
+    /// Rejects offset cursors and cursors issued for a different catalogue version.
+    public static Optional<String> lastKey(Cursor cursor, long version) {
+        return switch (cursor) {
+            case null -> Optional.empty();
+            case Cursor.Start ignored -> Optional.empty();
+            case Cursor.Token(var value) -> {
+                var keyset = verifiedKeyset(value);
+                if (keyset.version() != version) {
+                    throw new IllegalArgumentException("Stale cursor");
+                }
+                yield Optional.of(keyset.key());
+            }
+            case Cursor.End ignored -> throw new IllegalArgumentException("Invalid cursor");
+        };
+    }
+
     public static Cursor.Token fromIndex(int index) {
         if (index < 0) {
             throw new IllegalArgumentException("index must be >= 0");
@@ -27,7 +68,11 @@ public final class CursorCodec {
     }
 
     public static String requireValid(String token) {
-        decode(token);
+        if (token != null && token.startsWith(KEYSET_PREFIX)) {
+            parseKeyset(token);
+        } else {
+            decode(token);
+        }
         return token;
     }
 
@@ -44,6 +89,9 @@ public final class CursorCodec {
         if (token == null) {
             return 0;
         }
+        if (token.startsWith(KEYSET_PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
         try {
             var s = new String(Base64Util.decodeUrl(token), StandardCharsets.UTF_8);
             return Integer.parseInt(s);
@@ -52,8 +100,68 @@ public final class CursorCodec {
         }
     }
 
+    private static Keyset verifiedKeyset(String token) {
+        if (!token.startsWith(KEYSET_PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        var keyset = parseKeyset(token);
+        var mac = token.lastIndexOf('.');
+        if (!MessageDigest.isEqual(sign(token.substring(0, mac)).getBytes(StandardCharsets.US_ASCII),
+                token.substring(mac + 1).getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keyset;
+    }
+
+    private static Keyset parseKeyset(String token) {
+        var parts = token.substring(KEYSET_PREFIX.length()).split("\\.", -1);
+        if (parts.length != 3 || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            Base64Util.decodeUrl(parts[2]);
+            return new Keyset(Long.parseLong(parts[0], 36),
+                    new String(Base64Util.decodeUrl(parts[1]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static String sign(String body) {
+        try {
+            var mac = Mac.getInstance("HmacSHA256");
+            mac.init(Secret.KEY);
+            return Base64Util.encodeUrl(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static String sanitizeToken(String value) {
         ValidationUtil.requireClean(value);
         return requireValid(value);
     }
+
+    private record Keyset(long version, String key) {
+    }
+
+    /// Signing key, resolved on first use so the property can be set after class load.
+    private static final class Secret {
+        private static final SecretKeySpec KEY = load();
+
+        private static SecretKeySpec load() {
+            var configured = System.getProperty(KEY_PROPERTY, "");
+            byte[] key;
+            if (configured.isBlank()) {
+                key = new byte[MIN_KEY_BYTES];
+                new SecureRandom().nextBytes(key);
+            } else {
+                key = Base64Util.decodeUrl(configured.strip());
+                if (key.length < MIN_KEY_BYTES) {
+                    throw new IllegalStateException(KEY_PROPERTY + " must decode to at least " + MIN_KEY_BYTES + " bytes");
+                }
+            }
+            return new SecretKeySpec(key, "HmacSHA256");
+        }
+    }
 }
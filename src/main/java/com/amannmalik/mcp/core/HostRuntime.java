@@ -15,15 +15,18 @@ import jakarta.json.JsonObject;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.System.Logger;
 import java.net.URI;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class HostRuntime implements McpHost {
     private static final CallToolRequestAbstractEntityCodec CALL_TOOL_REQUEST_CODEC = new CallToolRequestAbstractEntityCodec();
@@ -36,9 +39,9 @@ public final class HostRuntime implements McpHost {
             new ToolAbstractEntityCodec(),
             (page, meta) -> new ListToolsResult(page.items(), page.nextCursor(), meta));
     private static final JsonCodec<PaginatedRequest> PAGINATED_REQUEST_CODEC = PaginatedRequestCodec.INSTANCE;
-    private static final Duration TIMEOUT = Duration.ofSeconds(5);
     private static final Logger LOG = PlatformLog.get(HostRuntime.class);
     private final Map<String, McpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, Duration> requestTimeouts = new ConcurrentHashMap<>();
     private final Principal principal;
     private final Map<String, Set<String>> consents = new ConcurrentHashMap<>();
     private final ToolAccessPolicy toolAccess;
@@ -48,8 +51,10 @@ public final class HostRuntime implements McpHost {
     private final Set<Role> allowedAudiences = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean samplingAllowed = new AtomicBoolean();
     private final Map<String, EventLog> events = new ConcurrentHashMap<>();
+    private final int pageSize;
 
     public HostRuntime(McpHostConfiguration config) throws IOException {
+        this.pageSize = config.defaultPageSize();
         this.principal = new Principal(config.hostPrincipal(), Set.of());
         this.toolAccess = ServiceLoaders.loadSingleton(ToolAccessPolicy.class);
         this.privacyBoundary = ServiceLoaders.loadSingleton(ResourceAccessPolicy.class);
@@ -144,6 +149,7 @@ public final class HostRuntime implements McpHost {
     @Override
     public void unregister(String id) throws IOException {
         var client = clients.remove(id);
+        requestTimeouts.remove(id);
         if (client != null) {
             client.close();
         }
@@ -185,28 +191,40 @@ public final class HostRuntime implements McpHost {
     }
 
     @Override
-    public Closeable subscribeToResource(String clientId, URI uri, Consumer<ResourceUpdate> listener) throws IOException {
+    public Stream<Resource> resources(String clientId) {
         var client = requireClient(clientId);
         requireCapability(client, ServerCapability.RESOURCES);
-        Optional<Resource> result = Optional.empty();
-        var finished = false;
-        Cursor cursor = Cursor.Start.INSTANCE;
-        do {
-            var page = client.listResources(cursor);
-            for (var resource : page.resources()) {
-                if (resource.uri().equals(uri)) {
-                    result = Optional.of(resource);
-                    finished = true;
-                    break;
-                }
-            }
-            if (finished) break;
-            cursor = page.nextCursor();
-        } while (!(cursor instanceof Cursor.End));
-        if (!finished) {
-            result = Optional.empty();
+        try {
+            return client.mirroredResources().stream().filter(r -> allowed(r.annotations()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        var resource = result.orElseThrow(() -> new IllegalArgumentException("Resource not found: " + uri));
+    }
+
+    @Override
+    public Stream<Tool> tools(String clientId) {
+        var client = requireClient(clientId);
+        requireCapability(client, ServerCapability.TOOLS);
+        return tools(client, null);
+    }
+
+    /// Streams every tool, each page bounded by `deadline` or, when it is `null`, by
+    /// the client's own request timeout.
+    private Stream<Tool> tools(McpClient client, Instant deadline) {
+        return PrefetchingIterator.stream(cursor -> {
+            var result = listTools(client, cursor, pageSize, deadline);
+            return new Pagination.Page<>(result.tools(), result.nextCursor());
+        });
+    }
+
+    @Override
+    public Closeable subscribeToResource(String clientId, URI uri, Consumer<ResourceUpdate> listener) throws IOException {
+        var client = requireClient(clientId);
+        requireCapability(client, ServerCapability.RESOURCES);
+        var resource = client.mirroredResources().stream()
+                .filter(r -> r.uri().equals(uri))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Resource not found: " + uri));
         ensureAudienceAllowed(resource.annotations());
         privacyBoundary.requireAllowed(principal, resource.annotations());
         return client.subscribeResource(uri, listener);
@@ -216,8 +234,16 @@ public final class HostRuntime implements McpHost {
     public ListToolsResult listTools(String clientId, Cursor cursor) throws IOException {
         var client = requireClient(clientId);
         requireCapability(client, ServerCapability.TOOLS);
+        return listTools(client, cursor, 0, null);
+    }
+
+    private static ListToolsResult listTools(McpClient client, Cursor cursor, int pageSize, Instant deadline) throws IOException {
         var token = cursor instanceof Cursor.Token(var value) ? value : null;
-        var resp = JsonRpc.expectResponse(client.request(RequestMethod.TOOLS_LIST, PAGINATED_REQUEST_CODEC.toJson(new PaginatedRequest(token, null)), TIMEOUT));
+        var params = PAGINATED_REQUEST_CODEC.toJson(new PaginatedRequest(token, null));
+        if (pageSize > 0) {
+            params = PageSizeCodec.withPageSize(params, pageSize);
+        }
+        var resp = JsonRpc.expectResponse(client.request(RequestMethod.TOOLS_LIST, params, remaining(deadline)));
         return LIST_TOOLS_RESULT_JSON_CODEC.fromJson(resp.result());
     }
 
@@ -226,28 +252,19 @@ public final class HostRuntime implements McpHost {
         var client = requireClient(clientId);
         requireCapability(client, ServerCapability.TOOLS);
         requireConsent(principal, "tool:" + name);
-        Optional<Tool> result = Optional.empty();
-        var finished = false;
-        Cursor cursor = Cursor.Start.INSTANCE;
-        do {
-            var page = listTools(clientId, cursor);
-            for (var t : page.tools()) {
-                if (t.name().equals(name)) {
-                    result = Optional.of(t);
-                    finished = true;
-                    break;
-                }
-            }
-            if (finished) break;
-            cursor = page.nextCursor();
-        } while (!(cursor instanceof Cursor.End));
-        if (!finished) {
-            result = Optional.empty();
+        var deadline = deadline(clientId);
+        Tool tool;
+        try (var all = tools(client, deadline)) {
+            tool = all.filter(t -> t.name().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Tool not found: " + name));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        var tool = result.orElseThrow(() -> new IllegalArgumentException("Tool not found: " + name));
         ensureToolAllowed(tool.name());
         toolAccess.requireAllowed(principal, tool);
-        var resp = JsonRpc.expectResponse(client.request(RequestMethod.TOOLS_CALL, CALL_TOOL_REQUEST_CODEC.toJson(new CallToolRequest(name, args, null)), TIMEOUT));
+        var resp = JsonRpc.expectResponse(client.request(RequestMethod.TOOLS_CALL,
+                CALL_TOOL_REQUEST_CODEC.toJson(new CallToolRequest(name, args, null)), remaining(deadline)));
         return TOOL_RESULT_ABSTRACT_ENTITY_CODEC.fromJson(resp.result());
     }
 
@@ -261,7 +278,7 @@ public final class HostRuntime implements McpHost {
         requireConsent(principal, "sampling");
         ensureSamplingAllowed();
         samplingAccess.requireAllowed(principal);
-        var resp = JsonRpc.expectResponse(client.request(RequestMethod.SAMPLING_CREATE_MESSAGE, params, TIMEOUT));
+        var resp = JsonRpc.expectResponse(client.request(RequestMethod.SAMPLING_CREATE_MESSAGE, params, remaining(deadline(clientId))));
         return resp.result();
     }
 
@@ -331,6 +348,7 @@ public final class HostRuntime implements McpHost {
         if (clients.putIfAbsent(id, client) != null) {
             throw new IllegalArgumentException("Client already registered: " + id);
         }
+        requestTimeouts.put(id, clientConfig.defaultReceiveTimeout());
         client.setPrincipal(principal);
         client.setSamplingAccessPolicy(samplingAccess);
         client.configurePing(
@@ -338,6 +356,24 @@ public final class HostRuntime implements McpHost {
                 clientConfig.pingTimeout());
     }
 
+    /// One deadline for a whole host operation, so every request it makes to the
+    /// client shares the client's request timeout rather than each getting its own.
+    private Instant deadline(String clientId) {
+        return Instant.now().plus(requestTimeouts.get(clientId));
+    }
+
+    /// Time left before `deadline`; `null` leaves the timeout to the client.
+    private static Duration remaining(Instant deadline) throws IOException {
+        if (deadline == null) {
+            return null;
+        }
+        var left = Duration.between(Instant.now(), deadline);
+        if (!left.isPositive()) {
+            throw new IOException("Request deadline exceeded");
+        }
+        return left;
+    }
+
     private McpClient requireClient(String id) {
         var client = clients.get(id);
         if (client == null) {
@@ -4,13 +4,17 @@ import com.amannmalik.mcp.api.*;
 import com.amannmalik.mcp.api.Notification.CancelledNotification;
 import com.amannmalik.mcp.api.Notification.ProgressNotification;
 import com.amannmalik.mcp.codec.CancelledNotificationJsonCodec;
+import com.amannmalik.mcp.codec.DeadlineCodec;
 import com.amannmalik.mcp.codec.JsonRpcMessageJsonCodec;
 import com.amannmalik.mcp.jsonrpc.*;
-import jakarta.json.JsonObject;
+import com.amannmalik.mcp.util.PlatformLog;
+import com.amannmalik.mcp.util.TimingWheel;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.System.Logger;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -19,11 +23,15 @@ import java.util.function.*;
 public abstract sealed class JsonRpcEndpoint implements Closeable permits ClientRuntime, ServerRuntime {
     protected static final JsonRpcMessageJsonCodec CODEC = new JsonRpcMessageJsonCodec();
     protected static final CancelledNotificationJsonCodec CANCEL_CODEC = new CancelledNotificationJsonCodec();
+    private static final Logger LOG = PlatformLog.get(JsonRpcEndpoint.class);
     protected final Transport transport;
     protected final Map<RequestId, CompletableFuture<JsonRpcMessage>> pending = new ConcurrentHashMap<>();
     protected final ProgressManager progress;
     private final Map<RequestMethod, Function<JsonRpcRequest, JsonRpcMessage>> requests = new EnumMap<>(RequestMethod.class);
     private final Map<NotificationMethod, Consumer<JsonRpcNotification>> notifications = new EnumMap<>(NotificationMethod.class);
+    private final Set<RequestMethod> cancellable = EnumSet.noneOf(RequestMethod.class);
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private final Map<RequestId, List<Runnable>> afterResponse = new ConcurrentHashMap<>();
     private final AtomicLong counter;
 
     protected JsonRpcEndpoint(Transport transport, ProgressManager progress, long initialId) {
@@ -47,10 +55,30 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
     protected final void process(JsonRpcMessage msg) throws IOException {
         switch (msg) {
             case JsonRpcRequest req -> {
-                var resp = handleRequest(req, true);
-                if (resp.isPresent()) {
-                    send(resp.get());
+                final Optional<ProgressToken> token;
+                final Optional<Instant> deadline;
+                try {
+                    deadline = DeadlineCodec.fromMeta(req.params());
+                    token = progress.register(req.id(), req.params());
+                } catch (DuplicateRequestException e) {
+                    progress.release(req.id());
+                    send(JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_REQUEST, e.getMessage()));
+                    return;
+                } catch (IllegalArgumentException e) {
+                    progress.release(req.id());
+                    send(JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage()));
+                    return;
                 }
+                if (deadline.isPresent() && !deadline.get().isAfter(Instant.now())) {
+                    progress.release(req.id());
+                    send(JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, "Request deadline exceeded"));
+                    return;
+                }
+                if (RequestMethod.from(req.method()).filter(cancellable::contains).isPresent()) {
+                    startWorker(req, token, deadline);
+                    return;
+                }
+                respond(req.id(), handleRequest(req, token, false));
             }
             case JsonRpcNotification note -> handleNotification(note);
             case JsonRpcResponse resp -> complete(resp.id(), resp);
@@ -72,6 +100,13 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
         }
     }
 
+    /// Registers a handler that runs on its own virtual thread so the receive loop stays
+    /// responsive; `notifications/cancelled` for the request interrupts that thread.
+    protected final void registerCancellableRequest(RequestMethod method, Function<JsonRpcRequest, JsonRpcMessage> handler) {
+        registerRequest(method, handler);
+        cancellable.add(method);
+    }
+
     protected final void registerNotification(NotificationMethod method, Consumer<JsonRpcNotification> handler) {
         Objects.requireNonNull(method, "method");
         Objects.requireNonNull(handler, "handler");
@@ -81,47 +116,35 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
         }
     }
 
-    protected final JsonRpcMessage await(RequestId id, CompletableFuture<JsonRpcMessage> future, Duration timeout) throws IOException {
-        try {
-            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            cancelTimeout(id);
-            throw new IOException("Request timed out after " + timeout.toMillis() + " ms", e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException(e);
-        } catch (ExecutionException e) {
-            throw unwrapExecutionException(e);
-        }
+    /// Queues `task` to run once the response to request `id` has been handed to the
+    /// transport, so anything it sends is ordered after that response. Tasks are
+    /// dropped if the request is cancelled before responding.
+    protected final void afterResponse(RequestId id, Runnable task) {
+        Objects.requireNonNull(task, "task");
+        afterResponse.computeIfAbsent(id, k -> new ArrayList<>()).add(task);
     }
 
-    protected final JsonRpcMessage awaitAndProcess(
-            RequestId id,
-            CompletableFuture<JsonRpcMessage> future,
-            Duration timeout,
-            Supplier<Optional<JsonObject>> receiver,
-            Consumer<IllegalArgumentException> invalidHandler,
-            String timeoutMessage) throws IOException {
-        var end = System.currentTimeMillis() + timeout.toMillis();
-        try {
-            while (!future.isDone()) {
-                if (System.currentTimeMillis() >= end) {
-                    cancelTimeout(id);
-                    throw new IOException(timeoutMessage + " after " + timeout.toMillis() + " ms");
-                }
-                var obj = receiver.get();
-                if (obj.isPresent()) {
-                    try {
-                        process(CODEC.fromJson(obj.get()));
-                    } catch (IllegalArgumentException e) {
-                        invalidHandler.accept(e);
-                    }
-                }
+    /// Registers a pending response for `id` that fails with `timeoutMessage` once
+    /// `timeout` elapses, at which point the peer is sent `notifications/cancelled`.
+    /// Callers cancel the returned future if the request is abandoned early.
+    protected final CompletableFuture<JsonRpcMessage> expect(RequestId id, Duration timeout, String timeoutMessage) {
+        var future = new CompletableFuture<JsonRpcMessage>();
+        pending.put(id, future);
+        var expiry = TimingWheel.shared().schedule(timeout, () -> {
+            var failure = new IOException(timeoutMessage + " after " + timeout.toMillis() + " ms");
+            if (future.completeExceptionally(failure)) {
+                cancelTimeout(id);
             }
-            return getCompleted(future);
-        } finally {
-            pending.remove(id);
-        }
+        });
+        future.whenComplete((result, failure) -> {
+            expiry.cancel();
+            pending.remove(id, future);
+        });
+        return future;
+    }
+
+    protected final JsonRpcMessage await(CompletableFuture<JsonRpcMessage> future) throws IOException {
+        return getCompleted(future);
     }
 
     private JsonRpcMessage getCompleted(CompletableFuture<JsonRpcMessage> future) throws IOException {
@@ -140,7 +163,7 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
             var params = CANCEL_CODEC.toJson(new CancelledNotification(id, "timeout"));
             send(new JsonRpcNotification(NotificationMethod.CANCELLED.method(), params));
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            LOG.log(Logger.Level.WARNING, "Failed to cancel timed out request " + id, e);
         }
     }
 
@@ -151,27 +174,78 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
         }
     }
 
-    private Optional<JsonRpcMessage> handleRequest(JsonRpcRequest req, boolean cancellable) {
-        if (req == null) {
-            throw new IllegalArgumentException("request required");
-        }
-        final Optional<ProgressToken> token;
+    /// Runs a cancellable request; reaching the caller's deadline cancels it like a
+    /// `notifications/cancelled` would, since nobody is waiting for the result.
+    private void startWorker(JsonRpcRequest req, Optional<ProgressToken> token, Optional<Instant> deadline) {
+        Thread.ofVirtual().name("mcp-request-" + req.id()).start(() -> {
+            var self = Thread.currentThread();
+            workers.add(self);
+            var expiry = deadline.map(d -> TimingWheel.shared().schedule(
+                    Duration.between(Instant.now(), d),
+                    () -> progress.cancel(req.id(), "deadline exceeded")));
+            try {
+                respond(req.id(), handleRequest(req, token, true));
+            } catch (IOException e) {
+                LOG.log(Logger.Level.WARNING, "Failed to complete request " + req.id(), e);
+            } catch (Throwable e) {
+                LOG.log(Logger.Level.WARNING, "Request " + req.id() + " failed", e);
+                respondFailure(req.id(), e);
+            } finally {
+                expiry.ifPresent(TimingWheel.Timeout::cancel);
+                workers.remove(self);
+            }
+        });
+    }
+
+    /// Answers a request whose worker died, typically from an `Error` the handler
+    /// threw, so the caller is not left waiting for its own timeout.
+    private void respondFailure(RequestId id, Throwable failure) {
+        afterResponse.remove(id);
+        var message = failure.getMessage() == null ? failure.getClass().getSimpleName() : failure.getMessage();
         try {
-            token = progress.register(req.id(), req.params());
-        } catch (DuplicateRequestException e) {
-            progress.release(req.id());
-            return Optional.of(JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_REQUEST, e.getMessage()));
-        } catch (IllegalArgumentException e) {
-            progress.release(req.id());
-            return Optional.of(JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage()));
+            send(JsonRpcError.of(id, JsonRpcErrorCode.INTERNAL_ERROR, message));
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Logger.Level.WARNING, "Failed to report failure of request " + id, e);
+        }
+    }
+
+    private void respond(RequestId id, Optional<JsonRpcMessage> resp) throws IOException {
+        var tasks = afterResponse.remove(id);
+        if (resp.isEmpty()) {
+            return;
+        }
+        send(resp.get());
+        if (tasks == null) {
+            return;
+        }
+        for (var task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.log(Logger.Level.WARNING, "Post-response task failed for request " + id, e);
+            }
         }
+    }
+
+    private Optional<JsonRpcMessage> handleRequest(JsonRpcRequest req, Optional<ProgressToken> token, boolean interruptible) {
         try {
             token.ifPresent(t -> sendProgress(t, 0.0));
-            if (cancellable && progress.isCancelled(req.id())) {
+            if (progress.isCancelled(req.id())) {
                 return Optional.empty();
             }
-            var resp = dispatch(req);
-            if (cancellable && progress.isCancelled(req.id())) {
+            JsonRpcMessage resp;
+            if (interruptible) {
+                progress.attachHandler(req.id(), Thread.currentThread());
+                try {
+                    resp = dispatch(req);
+                } finally {
+                    progress.detachHandler(req.id());
+                    Thread.interrupted();
+                }
+            } else {
+                resp = dispatch(req);
+            }
+            if (progress.isCancelled(req.id())) {
                 return Optional.empty();
             }
             token.ifPresent(t -> sendProgress(t, 1.0));
@@ -217,6 +291,7 @@ public abstract sealed class JsonRpcEndpoint implements Closeable permits Client
 
     @Override
     public void close() throws IOException {
+        workers.forEach(Thread::interrupt);
         transport.close();
     }
 }
@@ -0,0 +1,117 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.api.RequestMethod;
+import com.amannmalik.mcp.codec.JsonFragment;
+import com.amannmalik.mcp.spi.*;
+import com.amannmalik.mcp.util.ValidationUtil;
+import jakarta.json.JsonObject;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/// Process-wide encoded list results keyed by catalogue, method, cursor, requested
+/// page size, principal, access fingerprint and roots. A catalogue is one provider
+/// instance, so sessions sharing a provider share its listings while per-session
+/// providers only ever hit their own entries.
+/// Entries of a catalogue are dropped when it reports a change; a load that races
+/// with such an invalidation is returned but not stored.
+final class ListResultCache {
+    private static final int SHARED_CAPACITY = 256;
+    private static final ListResultCache SHARED = new ListResultCache(SHARED_CAPACITY);
+
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Key, JsonFragment> entries;
+    private final Map<Catalogue, Long> generations = new HashMap<>();
+
+    ListResultCache(int capacity) {
+        this.capacity = ValidationUtil.requirePositive(capacity, "capacity");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, JsonFragment> eldest) {
+                return size() > ListResultCache.this.capacity;
+            }
+        };
+    }
+
+    static ListResultCache shared() {
+        return SHARED;
+    }
+
+    JsonFragment get(Provider<?> provider,
+                     RequestMethod method,
+                     Cursor cursor,
+                     int pageSize,
+                     Principal principal,
+                     long accessFingerprint,
+                     List<Root> roots,
+                     Supplier<JsonObject> loader) {
+        var catalogue = new Catalogue(provider, method);
+        var key = new Key(catalogue, cursor, pageSize, principal.id(), accessFingerprint, List.copyOf(roots));
+        long generation;
+        lock.lock();
+        try {
+            var cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            generation = generations.getOrDefault(catalogue, 0L);
+        } finally {
+            lock.unlock();
+        }
+        var fragment = JsonFragment.of(loader.get());
+        lock.lock();
+        try {
+            if (generations.getOrDefault(catalogue, 0L) == generation) {
+                entries.put(key, fragment);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return fragment;
+    }
+
+    void invalidate(Provider<?> provider, RequestMethod method) {
+        var catalogue = new Catalogue(provider, method);
+        lock.lock();
+        try {
+            generations.merge(catalogue, 1L, Long::sum);
+            entries.keySet().removeIf(k -> k.catalogue().equals(catalogue));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Forgets every listing of `provider` once no session will ask for it again.
+    void release(Provider<?> provider) {
+        lock.lock();
+        try {
+            generations.keySet().removeIf(c -> c.provider() == provider);
+            entries.keySet().removeIf(k -> k.catalogue().provider() == provider);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Compares providers by identity; two instances never share listings.
+    private record Catalogue(Provider<?> provider, RequestMethod method) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Catalogue c && c.provider == provider && c.method == method;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(provider) * 31 + method.hashCode();
+        }
+    }
+
+    private record Key(Catalogue catalogue,
+                       Cursor cursor,
+                       int pageSize,
+                       String principal,
+                       long accessFingerprint,
+                       List<Root> roots) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.Cursor;
+import com.amannmalik.mcp.spi.Pagination;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/// Walks a paginated listing, requesting the next page on a virtual thread as soon as
+/// the current one arrives so the round trip overlaps with the caller consuming it.
+/// At most one page is fetched ahead; closing the stream abandons it.
+final class PrefetchingIterator<T> implements Iterator<T> {
+    private final PageSource<T> source;
+    private Iterator<T> current = Collections.emptyIterator();
+    private FutureTask<Pagination.Page<T>> next;
+
+    private PrefetchingIterator(PageSource<T> source) {
+        this.source = source;
+        this.next = fetch(Cursor.Start.INSTANCE);
+    }
+
+    static <T> Stream<T> stream(PageSource<T> source) {
+        Objects.requireNonNull(source, "source");
+        var iterator = new PrefetchingIterator<>(source);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(iterator::abandon);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (next == null) {
+                return false;
+            }
+            var page = await(next);
+            next = page.nextCursor() instanceof Cursor.End ? null : fetch(page.nextCursor());
+            current = page.items().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private FutureTask<Pagination.Page<T>> fetch(Cursor cursor) {
+        var task = new FutureTask<>(() -> source.fetch(cursor));
+        Thread.ofVirtual().name("mcp-page-prefetch").start(task);
+        return task;
+    }
+
+    private void abandon() {
+        if (next != null) {
+            next.cancel(true);
+            next = null;
+        }
+    }
+
+    private static <T> Pagination.Page<T> await(FutureTask<Pagination.Page<T>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException(e));
+        } catch (ExecutionException e) {
+            throw switch (e.getCause()) {
+                case IOException io -> new UncheckedIOException(io);
+                case RuntimeException re -> re;
+                default -> new IllegalStateException(e.getCause());
+            };
+        }
+    }
+
+    @FunctionalInterface
+    interface PageSource<T> {
+        Pagination.Page<T> fetch(Cursor cursor) throws IOException;
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.json.JsonObject;
 
 import java.io.IOException;
 import java.lang.System.Logger;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -78,6 +79,7 @@ public final class ProgressManager {
                             }
                             current.clearRequests();
                             current.deactivate();
+                            limiter.forget(token);
                             return null;
                         })));
     }
@@ -92,6 +94,24 @@ public final class ProgressManager {
         return Optional.ofNullable(reason);
     }
 
+    /// Interrupts `handler` when the request is cancelled while it remains attached.
+    public void attachHandler(RequestId id, Thread handler) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(handler, "handler");
+        var registration = requests.get(id);
+        if (registration != null) {
+            registration.attach(handler);
+        }
+    }
+
+    public void detachHandler(RequestId id) {
+        Objects.requireNonNull(id, "id");
+        var registration = requests.get(id);
+        if (registration != null) {
+            registration.detach();
+        }
+    }
+
     public boolean isCancelled(RequestId id) {
         Objects.requireNonNull(id, "id");
         var registration = requests.get(id);
@@ -137,6 +157,10 @@ public final class ProgressManager {
                 .orElse(false);
     }
 
+    /// Sends `note` if the token's rate allows it; otherwise keeps it as the token's
+    /// latest value and flushes that once a permit is available, so intermediate
+    /// updates are coalesced. Terminal updates are always sent immediately and
+    /// updates that do not advance the progress are dropped.
     public void send(ProgressNotification note, NotificationSender sender) throws IOException {
         Objects.requireNonNull(note, "note");
         Objects.requireNonNull(sender, "sender");
@@ -145,14 +169,52 @@ public final class ProgressManager {
             return;
         }
         var tokenState = state.get();
+        tokenState.lock.lock();
         try {
-            limiter.requireAllowance(note.token().toString());
-            tokenState.advance(note.progress());
-        } catch (IllegalArgumentException | IllegalStateException | SecurityException e) {
-            LOG.log(Logger.Level.WARNING, "Progress update rejected", e);
-            return;
+            try {
+                tokenState.advance(note.progress());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                LOG.log(Logger.Level.DEBUG, () -> "Progress update dropped: " + e.getMessage());
+                return;
+            }
+            var wait = isComplete(note) ? 0L : limiter.tryAcquire(note.token());
+            if (wait == 0L) {
+                tokenState.deferred = null;
+                sender.send(NotificationMethod.PROGRESS, NOTIFICATION_CODEC.toJson(note));
+                return;
+            }
+            tokenState.deferred = note;
+            if (!tokenState.flushScheduled) {
+                tokenState.flushScheduled = true;
+                TimingWheel.shared().schedule(Duration.ofNanos(wait), () -> flush(tokenState, note.token(), sender));
+            }
+        } finally {
+            tokenState.lock.unlock();
+        }
+    }
+
+    private void flush(TokenState state, ProgressToken token, NotificationSender sender) {
+        state.lock.lock();
+        try {
+            state.flushScheduled = false;
+            var note = state.deferred;
+            if (note == null || !state.isActive()) {
+                state.deferred = null;
+                return;
+            }
+            var wait = limiter.tryAcquire(token);
+            if (wait > 0L) {
+                state.flushScheduled = true;
+                TimingWheel.shared().schedule(Duration.ofNanos(wait), () -> flush(state, token, sender));
+                return;
+            }
+            state.deferred = null;
+            sender.send(NotificationMethod.PROGRESS, NOTIFICATION_CODEC.toJson(note));
+        } catch (IOException e) {
+            LOG.log(Logger.Level.DEBUG, () -> "Failed to flush progress: " + e.getMessage());
+        } finally {
+            state.lock.unlock();
         }
-        sender.send(NotificationMethod.PROGRESS, NOTIFICATION_CODEC.toJson(note));
     }
 
     private RequestRegistration createRegistration(RequestId id, ProgressToken token) {
@@ -197,6 +259,8 @@ public final class ProgressManager {
         private volatile boolean active = true;
         private volatile boolean hasProgress;
         private volatile double progress;
+        private ProgressNotification deferred;
+        private boolean flushScheduled;
 
         void addRequest(RequestId id) {
             requestIds.add(id);
@@ -249,6 +313,7 @@ public final class ProgressManager {
         private final AtomicReference<TokenState> tokenState;
         private final AtomicBoolean cancelled = new AtomicBoolean();
         private final AtomicReference<String> cancellationReason = new AtomicReference<>();
+        private final AtomicReference<Thread> handler = new AtomicReference<>();
 
         private RequestRegistration(ProgressToken token, TokenState state) {
             this.token = token;
@@ -276,8 +341,23 @@ public final class ProgressManager {
         }
 
         void cancel(String reason) {
-            cancelled.set(true);
             cancellationReason.set(reason);
+            cancelled.set(true);
+            var thread = handler.get();
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        void attach(Thread thread) {
+            handler.set(thread);
+            if (cancelled.get()) {
+                thread.interrupt();
+            }
+        }
+
+        void detach() {
+            handler.set(null);
         }
 
         boolean isCancelled() {
@@ -0,0 +1,90 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.Principal;
+import com.amannmalik.mcp.util.RateLimiter;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/// Hierarchical request quota: a request must fit the per-key budget, then its
+/// principal's, its session's and finally the process-wide budget. Levels are checked
+/// from the most specific outwards so a client exhausting its own budget is rejected
+/// before it consumes shared capacity, and permits already taken at inner levels are
+/// refunded when an outer level rejects. A rate of zero disables that level.
+final class RequestQuota {
+    /// Limiters for the principal and global levels are shared by every session in
+    /// the process that uses the same rate.
+    private static final ConcurrentHashMap<Rate, RateLimiter> SHARED = new ConcurrentHashMap<>();
+
+    private final RateLimiter principalLimiter;
+    private final RateLimiter sessionLimiter;
+    private final RateLimiter globalLimiter;
+    private final String principalId;
+    private final PrincipalKey principalKey;
+
+    RequestQuota(Principal principal, int globalPerSecond, int principalPerSecond, int sessionPerSecond, long windowMs) {
+        this.principalId = Objects.requireNonNull(principal, "principal").id();
+        this.principalKey = new PrincipalKey(principalId);
+        this.globalLimiter = shared(globalPerSecond, windowMs);
+        this.principalLimiter = shared(principalPerSecond, windowMs);
+        this.sessionLimiter = sessionPerSecond == 0 ? null : new RateLimiter(sessionPerSecond, windowMs);
+    }
+
+    private static RateLimiter shared(int perSecond, long windowMs) {
+        if (perSecond == 0) {
+            return null;
+        }
+        return SHARED.computeIfAbsent(new Rate(perSecond, windowMs), r -> new RateLimiter(r.limit(), r.windowMs()));
+    }
+
+    /// Takes one permit at every level, or none if any level is exhausted, returning
+    /// the first exhausted level.
+    Optional<Rejection> acquire(RateLimiter keyed, String key) {
+        var wait = keyed.tryAcquire(key);
+        if (wait > 0) {
+            return Optional.of(new Rejection("Rate limit exceeded: " + key, wait));
+        }
+        if (principalLimiter != null && (wait = principalLimiter.tryAcquire(principalKey)) > 0) {
+            keyed.refund(key);
+            return Optional.of(new Rejection("Rate limit exceeded for principal: " + principalId, wait));
+        }
+        if (sessionLimiter != null && (wait = sessionLimiter.tryAcquire(Level.SESSION)) > 0) {
+            refundPrincipal(keyed, key);
+            return Optional.of(new Rejection("Rate limit exceeded for session", wait));
+        }
+        if (globalLimiter != null && (wait = globalLimiter.tryAcquire(Level.GLOBAL)) > 0) {
+            refundPrincipal(keyed, key);
+            if (sessionLimiter != null) {
+                sessionLimiter.refund(Level.SESSION);
+            }
+            return Optional.of(new Rejection("Server rate limit exceeded", wait));
+        }
+        return Optional.empty();
+    }
+
+    private void refundPrincipal(RateLimiter keyed, String key) {
+        keyed.refund(key);
+        if (principalLimiter != null) {
+            principalLimiter.refund(principalKey);
+        }
+    }
+
+    private enum Level {
+        GLOBAL,
+        SESSION
+    }
+
+    private record PrincipalKey(String id) {
+    }
+
+    private record Rate(int limit, long windowMs) {
+    }
+
+    record Rejection(String message, long retryAfterNanos) {
+        long retryAfterMillis() {
+            return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.Resource;
+import com.amannmalik.mcp.spi.ResourceChanges;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/// Versioned copy of the resources one session can see. Each refresh diffs the
+/// provider's listing against the previous one and stamps changed entries with a new
+/// version; removed entries are kept as tombstones so a client can be told what it
+/// lost. Once too many tombstones accumulate the oldest are dropped, and clients
+/// older than them get a reset instead of a diff. Version tokens carry a random
+/// epoch, so a token from another session or process also resets.
+final class ResourceCatalog {
+    private static final int TOMBSTONE_LIMIT = 4_096;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<URI, Entry> entries = new LinkedHashMap<>();
+    private long version;
+    private long floor;
+    private int tombstones;
+    private Object stamp;
+
+    /// Changes since the version token `since`. The listing is re-read through
+    /// `visible` unless `stamp` equals the one the catalogue was last refreshed under;
+    /// a `null` stamp always re-reads.
+    synchronized ResourceChanges changesSince(String since, Object stamp, Supplier<? extends Collection<Resource>> visible) {
+        if (stamp == null || !stamp.equals(this.stamp)) {
+            refresh(visible.get());
+            this.stamp = stamp;
+        }
+        var from = parse(since);
+        var token = epoch + "." + Long.toString(version, 36);
+        var added = new ArrayList<Resource>();
+        if (from < floor || from > version) {
+            entries.values().stream().filter(e -> e.resource != null).forEach(e -> added.add(e.resource));
+            return new ResourceChanges(token, true, added, List.of(), List.of());
+        }
+        var updated = new ArrayList<Resource>();
+        var removed = new ArrayList<URI>();
+        for (var e : entries.entrySet()) {
+            var entry = e.getValue();
+            if (entry.changed <= from) {
+                continue;
+            }
+            if (entry.resource == null) {
+                if (entry.added <= from) {
+                    removed.add(e.getKey());
+                }
+            } else {
+                (entry.added > from ? added : updated).add(entry.resource);
+            }
+        }
+        return new ResourceChanges(token, false, added, updated, removed);
+    }
+
+    private void refresh(Collection<Resource> current) {
+        var next = version + 1;
+        var seen = HashSet.<URI>newHashSet(current.size());
+        var changed = false;
+        for (var resource : current) {
+            var uri = resource.uri();
+            if (!seen.add(uri)) {
+                continue;
+            }
+            var entry = entries.get(uri);
+            if (entry == null || entry.resource == null) {
+                if (entry != null) {
+                    entries.remove(uri);
+                    tombstones--;
+                }
+                entries.put(uri, new Entry(resource, next, next));
+                changed = true;
+            } else if (!entry.resource.equals(resource)) {
+                entries.put(uri, new Entry(resource, entry.added, next));
+                changed = true;
+            }
+        }
+        for (var e : entries.entrySet()) {
+            var entry = e.getValue();
+            if (entry.resource != null && !seen.contains(e.getKey())) {
+                e.setValue(new Entry(null, entry.added, next));
+                tombstones++;
+                changed = true;
+            }
+        }
+        if (changed) {
+            version = next;
+            prune();
+        }
+    }
+
+    /// Drops the oldest tombstones beyond the limit and raises the floor past them.
+    private void prune() {
+        if (tombstones <= TOMBSTONE_LIMIT) {
+            return;
+        }
+        var dead = entries.entrySet().stream()
+                .filter(e -> e.getValue().resource == null)
+                .sorted(Comparator.comparingLong(e -> e.getValue().changed))
+                .limit(tombstones - TOMBSTONE_LIMIT)
+                .toList();
+        for (var e : dead) {
+            floor = Math.max(floor, e.getValue().changed);
+            entries.remove(e.getKey());
+            tombstones--;
+        }
+    }
+
+    /// Version encoded in `token`, or `-1` when it is empty, malformed or from
+    /// another epoch.
+    private long parse(String token) {
+        var dot = token.indexOf('.');
+        if (dot < 0 || !token.substring(0, dot).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(dot + 1), 36);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Entry(Resource resource, long added, long changed) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.ResourceBlock;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Client-side contents of read resources keyed by URI, with the server's etag for
+/// revalidation. An entry read while its URI is subscribed stays fresh, and is served
+/// without a request, until `resources/updated` arrives for it; other entries are
+/// revalidated on every read. Entries are evicted least-recently-used beyond the byte
+/// budget, estimated from the in-memory size of their contents.
+final class ResourceContentCache {
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long generation;
+
+    ResourceContentCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must be non-negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    boolean enabled() {
+        return maxBytes > 0;
+    }
+
+    Optional<Entry> get(URI uri) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(entries.get(uri));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Observed before a read so that an update racing with it prevents the result
+    /// from being stored as fresh.
+    long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(URI uri, List<ResourceBlock> contents, String etag, boolean subscribed, long observed) {
+        var size = contents.stream().mapToLong(ResourceContentCache::size).sum();
+        if (size > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            remove(uri);
+            entries.put(uri, new Entry(List.copyOf(contents), etag, subscribed && generation == observed, size));
+            bytes += size;
+            var it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().bytes();
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidate(URI uri) {
+        lock.lock();
+        try {
+            generation++;
+            var entry = entries.get(uri);
+            if (entry != null && entry.fresh()) {
+                entries.put(uri, new Entry(entry.contents(), entry.etag(), false, entry.bytes()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(URI uri) {
+        var previous = entries.remove(uri);
+        if (previous != null) {
+            bytes -= previous.bytes();
+        }
+    }
+
+    private static long size(ResourceBlock block) {
+        return switch (block) {
+            case ResourceBlock.Text t -> 2L * t.text().length();
+            case ResourceBlock.Binary b -> b.blob().length;
+        };
+    }
+
+    record Entry(List<ResourceBlock> contents, String etag, boolean fresh, long bytes) {
+    }
+}
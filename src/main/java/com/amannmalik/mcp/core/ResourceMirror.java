@@ -0,0 +1,67 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.Resource;
+import com.amannmalik.mcp.spi.ResourceChanges;
+
+import java.net.URI;
+import java.util.*;
+
+/// Client-side copy of a server's resource catalogue, kept current by applying the
+/// changes since the last version it saw. A synced copy stays fresh until invalidated
+/// by a `notifications/resources/list_changed` or a roots change; a sync that raced
+/// with an invalidation leaves it stale so the next read syncs again. A full listing
+/// from a server without versioned catalogues is never fresh, since such a server
+/// need not report changes. Changes to the server's access policy are not reported
+/// either, so a fresh mirror can lag them until the next list change.
+final class ResourceMirror {
+    private final Map<URI, Resource> resources = new LinkedHashMap<>();
+    private String version = "";
+    private long generation;
+    private boolean fresh;
+
+    synchronized Optional<List<Resource>> fresh() {
+        return fresh ? Optional.of(List.copyOf(resources.values())) : Optional.empty();
+    }
+
+    synchronized String version() {
+        return version;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /// Applies `changes` fetched after observing `observed` from [#generation()].
+    synchronized List<Resource> apply(ResourceChanges changes, long observed) {
+        if (changes.reset()) {
+            resources.clear();
+        }
+        changes.removed().forEach(resources::remove);
+        changes.added().forEach(r -> resources.put(r.uri(), r));
+        changes.updated().forEach(r -> resources.put(r.uri(), r));
+        version = changes.version();
+        fresh = observed == generation;
+        return List.copyOf(resources.values());
+    }
+
+    /// Replaces the mirror with a full listing from a server without versioned
+    /// catalogues; the next sync lists everything again.
+    synchronized List<Resource> replace(List<Resource> listing) {
+        resources.clear();
+        listing.forEach(r -> resources.put(r.uri(), r));
+        version = "";
+        fresh = false;
+        return List.copyOf(resources.values());
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        fresh = false;
+    }
+
+    synchronized void clear() {
+        resources.clear();
+        version = "";
+        invalidate();
+    }
+}
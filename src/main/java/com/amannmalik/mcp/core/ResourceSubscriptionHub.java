@@ -0,0 +1,156 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.api.Notification.ResourceUpdatedNotification;
+import com.amannmalik.mcp.codec.JsonCodec;
+import com.amannmalik.mcp.codec.JsonFragment;
+import com.amannmalik.mcp.codec.ResourceUpdatedNotificationAbstractEntityCodec;
+import com.amannmalik.mcp.spi.*;
+import com.amannmalik.mcp.util.*;
+
+import java.io.Closeable;
+import java.lang.System.Logger;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/// Process-wide owner of the resource provider and its update subscriptions. Every
+/// server session in the process shares one provider instance; each URI holds a
+/// single provider subscription however many sessions follow it, and each update is
+/// encoded once and handed to every session as the same fragment. The provider
+/// subscription is closed when its last session leaves, and the provider itself when
+/// the last session's lease is closed.
+final class ResourceSubscriptionHub {
+    private static final Logger LOG = PlatformLog.get(ResourceSubscriptionHub.class);
+    private static final JsonCodec<ResourceUpdatedNotification> CODEC = new ResourceUpdatedNotificationAbstractEntityCodec();
+    private static final ReentrantLock SHARED_LOCK = new ReentrantLock();
+    private static ResourceSubscriptionHub shared;
+    private static int sessions;
+
+    private final ResourceProvider provider;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<URI, Topic> topics = new HashMap<>();
+
+    private ResourceSubscriptionHub(ResourceProvider provider) {
+        this.provider = provider;
+    }
+
+    static Lease acquire() {
+        SHARED_LOCK.lock();
+        try {
+            if (shared == null) {
+                shared = new ResourceSubscriptionHub(loadProvider());
+            }
+            sessions++;
+            return new Lease(shared);
+        } finally {
+            SHARED_LOCK.unlock();
+        }
+    }
+
+    /// The registered provider, else the opt-in filesystem provider; failing both,
+    /// the usual missing-service error.
+    private static ResourceProvider loadProvider() {
+        return ServiceLoaders.loadOptional(ResourceProvider.class)
+                .or(FileSystemResourceProvider::fromSystemProperty)
+                .orElseGet(() -> ServiceLoaders.loadSingleton(ResourceProvider.class));
+    }
+
+    private Closeable subscribe(URI uri, Consumer<JsonFragment> sink) {
+        Objects.requireNonNull(uri, "uri");
+        Objects.requireNonNull(sink, "sink");
+        lock.lock();
+        try {
+            var topic = topics.get(uri);
+            if (topic == null) {
+                topic = new Topic();
+                // joined before subscribing so updates published during subscribe() reach it
+                topic.sinks.add(sink);
+                topic.subscription = provider.subscribe(uri, topic::publish);
+                topics.put(uri, topic);
+            } else {
+                topic.sinks.add(sink);
+            }
+            var joined = topic;
+            return () -> leave(uri, joined, sink);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        SHARED_LOCK.lock();
+        try {
+            if (shared != this || --sessions > 0) {
+                return;
+            }
+            shared = null;
+        } finally {
+            SHARED_LOCK.unlock();
+        }
+        lock.lock();
+        try {
+            topics.values().forEach(t -> CloseUtil.close(t.subscription));
+            topics.clear();
+        } finally {
+            lock.unlock();
+        }
+        CloseUtil.close(provider);
+    }
+
+    private void leave(URI uri, Topic topic, Consumer<JsonFragment> sink) {
+        lock.lock();
+        try {
+            if (topic.sinks.remove(sink) && topic.sinks.isEmpty() && topics.remove(uri, topic)) {
+                CloseUtil.close(topic.subscription);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// One session's hold on the shared hub.
+    static final class Lease implements Closeable {
+        private final ResourceSubscriptionHub hub;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(ResourceSubscriptionHub hub) {
+            this.hub = hub;
+        }
+
+        ResourceProvider provider() {
+            return hub.provider;
+        }
+
+        /// Adds `sink` as a follower of `uri`, subscribing to the provider only if no
+        /// other session already does. Closing the result removes the sink.
+        Closeable subscribe(URI uri, Consumer<JsonFragment> sink) {
+            return hub.subscribe(uri, sink);
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                hub.release();
+            }
+        }
+    }
+
+    private static final class Topic {
+        private final CopyOnWriteArrayList<Consumer<JsonFragment>> sinks = new CopyOnWriteArrayList<>();
+        private Closeable subscription;
+
+        void publish(ResourceUpdate update) {
+            var params = JsonFragment.of(CODEC.toJson(new ResourceUpdatedNotification(update.uri(), update.title())));
+            for (var sink : sinks) {
+                try {
+                    sink.accept(params);
+                } catch (RuntimeException e) {
+                    LOG.log(Logger.Level.WARNING, () -> "Failed to deliver resource update for " + update.uri() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.amannmalik.mcp.jsonrpc.JsonRpcResponse;
 import com.amannmalik.mcp.spi.Root;
 import com.amannmalik.mcp.util.EventSupport;
 import com.amannmalik.mcp.util.PlatformLog;
+import com.amannmalik.mcp.util.RootIndex;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -15,6 +16,7 @@ import java.lang.System.Logger;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 /// - [Roots](specification/2025-06-18/client/roots.mdx)
@@ -28,6 +30,8 @@ public final class RootsManager {
     private final RequestSender requester;
     private final EventSupport listChangeSupport = new EventSupport();
     private final List<Root> roots = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile RootIndex index = RootIndex.EMPTY;
 
     public RootsManager(Supplier<Set<ClientCapability>> capabilities, RequestSender requester) {
         this.capabilities = Objects.requireNonNull(capabilities, "capabilities");
@@ -40,6 +44,8 @@ public final class RootsManager {
         roots.clear();
         roots.addAll(fetched);
         if (changed) {
+            index = RootIndex.of(fetched);
+            version.incrementAndGet();
             listChangeSupport.notifyListeners();
         }
         return List.copyOf(fetched);
@@ -53,6 +59,16 @@ public final class RootsManager {
         return List.copyOf(roots);
     }
 
+    /// Canonical prefix index of the current roots, rebuilt only when they change.
+    public RootIndex index() {
+        return index;
+    }
+
+    /// Incremented whenever a fetch observes a different set of roots.
+    public long version() {
+        return version.get();
+    }
+
     public void refreshAsync() {
         if (!capabilities.get().contains(ClientCapability.ROOTS)) {
             return;
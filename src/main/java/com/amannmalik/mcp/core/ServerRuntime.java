@@ -16,10 +16,14 @@ import java.lang.System.Logger;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -51,14 +55,54 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                     ListPromptsResult::_meta,
                     new PromptAbstractEntityCodec(),
                     (page, meta) -> new ListPromptsResult(page.items(), page.nextCursor(), meta));
+    private static final JsonCodec<ListResourcesResult> LIST_RESOURCES_RESULT_CODEC =
+            AbstractEntityCodec.paginatedResult(
+                    "resources",
+                    "resource",
+                    r -> new Pagination.Page<>(r.resources(), r.nextCursor()),
+                    ListResourcesResult::_meta,
+                    new ResourceAbstractEntityCodec(),
+                    (p, meta) -> new ListResourcesResult(p.items(), p.nextCursor(), meta));
+    private static final JsonCodec<ListResourceTemplatesResult> LIST_RESOURCE_TEMPLATES_RESULT_CODEC =
+            AbstractEntityCodec.paginatedResult(
+                    "resourceTemplates",
+                    "resourceTemplate",
+                    r -> new Pagination.Page<>(r.resourceTemplates(), r.nextCursor()),
+                    ListResourceTemplatesResult::_meta,
+                    new ResourceTemplateAbstractEntityCodec(),
+                    (p, meta) -> new ListResourceTemplatesResult(p.items(), p.nextCursor(), meta));
     private static final Logger LOG = PlatformLog.get(ServerRuntime.class);
     private static final JsonCodec<ResourceListChangedNotification> RESOURCE_LIST_CHANGED_NOTIFICATION_JSON_CODEC = new ResourceListChangedNotificationJsonCodec();
     private static final JsonCodec<ResourceUpdatedNotification> RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC = new ResourceUpdatedNotificationAbstractEntityCodec();
     private static final CallToolRequestAbstractEntityCodec CALL_TOOL_REQUEST_CODEC = new CallToolRequestAbstractEntityCodec();
     private static final JsonCodec<ToolResult> TOOL_RESULT_CODEC = new ToolResultAbstractEntityCodec();
     private static final JsonCodec<PaginatedRequest> PAGINATED_REQUEST_CODEC = PaginatedRequestCodec.INSTANCE;
+    private static final JsonCodec<ReadResourceResult> READ_RESOURCE_RESULT_CODEC = new ReadResourceResultJsonCodec();
+    private static final JsonFragment TOOLS_LIST_CHANGED_PARAMS =
+            JsonFragment.of(TOOL_LIST_CHANGED_NOTIFICATION_JSON_CODEC.toJson(new ToolListChangedNotification()));
+    private static final JsonFragment PROMPTS_LIST_CHANGED_PARAMS =
+            JsonFragment.of(PromptListChangedNotification.CODEC.toJson(new PromptListChangedNotification()));
+    private static final JsonFragment RESOURCES_LIST_CHANGED_PARAMS =
+            JsonFragment.of(RESOURCE_LIST_CHANGED_NOTIFICATION_JSON_CODEC.toJson(new ResourceListChangedNotification()));
+    private static final int INITIALIZE_RESULT_CACHE_LIMIT = 16;
+    /// Encoded initialize results shared by sessions that negotiate the same response,
+    /// least recently used first.
+    private static final Map<InitializeResponse, JsonFragment> INITIALIZE_RESULTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<InitializeResponse, JsonFragment> eldest) {
+            return size() > INITIALIZE_RESULT_CACHE_LIMIT;
+        }
+    };
+    private static final long TEMPLATE_INDEX_TTL_NANOS = Duration.ofSeconds(5).toNanos();
+    private static final int DATA_LANE_CAPACITY = 1_024;
+    private static final Set<String> CONTROL_METHODS = Set.of(
+            RequestMethod.PING.method(),
+            RequestMethod.LOGGING_SET_LEVEL.method());
+    /// Marks the end of the data lane; compared by identity.
+    private static final JsonObject END_OF_DATA = Json.createObjectBuilder().build();
     private final McpServerConfiguration config;
     private final Set<ServerCapability> serverCapabilities;
+    private final ResourceSubscriptionHub.Lease resourceHub;
     private final ResourceProvider resources;
     private final ResourceAccessPolicy resourceAccessPolicy;
     private final Map<URI, Closeable> resourceSubscriptions = new ConcurrentHashMap<>();
@@ -73,8 +117,18 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
     private final Principal principal;
     private final RateLimiter completionLimiter;
     private final RateLimiter logLimiter;
+    private final RequestQuota quota;
+    private final ConcurrencyLimiter toolConcurrency;
+    private final ToolResultCache toolResults;
+    private volatile Thread serveThread;
     private final ServerLifecycle lifecycle;
     private final AtomicReference<LoggingLevel> logLevel = new AtomicReference<>();
+    private final ListResultCache listResults = ListResultCache.shared();
+    private final AtomicReference<TemplateIndex> templateIndex = new AtomicReference<>();
+    private final AtomicLong templateGeneration = new AtomicLong();
+    private final ResourceCatalog resourceCatalog = new ResourceCatalog();
+    private final AtomicLong resourceListGeneration = new AtomicLong();
+    private final List<Closeable> listResultSubscriptions = new ArrayList<>();
     private Closeable resourceListSubscription;
     private Closeable toolListSubscription;
     private Closeable promptsSubscription;
@@ -106,17 +160,36 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         this.samplingAccessPolicy = ServiceLoaders.loadSingleton(SamplingAccessPolicy.class);
         this.tools = ServiceLoaders.loadSingleton(ToolProvider.class);
         this.toolAccessPolicy = ServiceLoaders.loadSingleton(ToolAccessPolicy.class);
-        this.resources = ServiceLoaders.loadSingleton(ResourceProvider.class);
         this.resourceAccessPolicy = ServiceLoaders.loadSingleton(ResourceAccessPolicy.class);
         this.principal = principal;
-        this.serverCapabilities = capabilities(resources, tools, prompts, completions);
-        this.lifecycle = new ServerLifecycle(config.supportedVersions(), serverCapabilities, serverInfo, instructions);
+        this.quota = new RequestQuota(
+                principal,
+                config.globalRequestsPerSecond(),
+                config.principalRequestsPerSecond(),
+                config.sessionRequestsPerSecond(),
+                config.rateLimiterWindowMs());
         this.toolLimiter = limiter(config.toolsPerSecond(), config.rateLimiterWindowMs());
+        this.toolConcurrency = new ConcurrencyLimiter(config.toolConcurrencyLimit(), config.toolConcurrencyQueue());
+        this.toolResults = new ToolResultCache(config.toolResultCacheTtl(), config.toolResultCacheBytes());
         this.logLevel.set(config.initialLogLevel());
-        this.rootsManager = new RootsManager(lifecycle::clientCapabilities, this::request);
-        subscribeListChanges(tools, prompts);
-        subscribeResourceListChanges(resources);
-        registerHandlers(resources, tools, prompts, completions);
+        // a failure past this point must release the lease, or the shared provider is never closed
+        this.resourceHub = ResourceSubscriptionHub.acquire();
+        try {
+            this.resources = resourceHub.provider();
+            this.serverCapabilities = capabilities(resources, tools, prompts, completions);
+            this.lifecycle = new ServerLifecycle(config.supportedVersions(), serverCapabilities, serverInfo, instructions);
+            this.rootsManager = new RootsManager(lifecycle::clientCapabilities, this::request);
+            // caches are dropped before clients are told to list again
+            subscribeListResultInvalidation();
+            subscribeListChanges(tools, prompts);
+            subscribeResourceListChanges(resources);
+            registerHandlers(resources, tools, prompts, completions);
+        } catch (RuntimeException | Error e) {
+            listResultSubscriptions.forEach(CloseUtil::close);
+            CloseUtil.close(resourceListSubscription);
+            resourceHub.close();
+            throw e;
+        }
     }
 
     private static RateLimiter limiter(int perSecond, long windowMs) {
@@ -195,26 +268,68 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         });
     }
 
+    /// Reads messages until shutdown. Responses, and once operational `ping` and
+    /// `logging/setLevel`, are handled as they arrive; everything else is handed to a
+    /// single data-lane thread in arrival order, so a slow inline handler cannot hold
+    /// up heartbeats or the responses a worker is waiting for.
     @Override
     public void serve() throws IOException {
-        while (lifecycle.state() != LifecycleState.SHUTDOWN) {
-            var obj = receiveMessage();
-            if (obj.isEmpty()) {
-                continue;
+        serveThread = Thread.currentThread();
+        var dataLane = new ArrayBlockingQueue<JsonObject>(DATA_LANE_CAPACITY);
+        var dispatcher = Thread.ofVirtual().name("mcp-data-lane").start(() -> drain(dataLane));
+        try {
+            while (lifecycle.state() != LifecycleState.SHUTDOWN) {
+                var obj = receiveMessage();
+                if (obj.isEmpty()) {
+                    continue;
+                }
+                if (isControl(obj.get())) {
+                    handle(obj.get());
+                } else {
+                    dataLane.put(obj.get());
+                }
             }
-            try {
-                process(CODEC.fromJson(obj.get()));
-            } catch (IllegalArgumentException e) {
-                handleInvalidRequest(e);
-            } catch (IOException e) {
-                LOG.log(Logger.Level.ERROR, () -> config.errorProcessing() + ": " + e.getMessage());
-                var data = normalizeLogData(Json.createValue(e.getMessage()));
-                sendLog(new LoggingMessageNotification(LoggingLevel.ERROR, config.serverLoggerName(), data));
-            } catch (Exception e) {
-                LOG.log(Logger.Level.ERROR, () -> "Unexpected " + config.errorProcessing().toLowerCase(Locale.ROOT) + ": " + e.getMessage());
-                var data = normalizeLogData(Json.createValue(e.getMessage()));
-                sendLog(new LoggingMessageNotification(LoggingLevel.ERROR, config.serverLoggerName(), data));
+            // messages read before shutdown are still answered
+            dataLane.put(END_OF_DATA);
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dispatcher.interrupt();
+        }
+    }
+
+    private boolean isControl(JsonObject obj) {
+        if (!obj.containsKey("method")) {
+            return true;
+        }
+        return lifecycle.state() == LifecycleState.OPERATION
+                && obj.get("method") instanceof JsonString method
+                && CONTROL_METHODS.contains(method.getString());
+    }
+
+    private void drain(BlockingQueue<JsonObject> dataLane) {
+        try {
+            for (var obj = dataLane.take(); obj != END_OF_DATA; obj = dataLane.take()) {
+                handle(obj);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(JsonObject obj) {
+        try {
+            process(CODEC.fromJson(obj));
+        } catch (IllegalArgumentException e) {
+            handleInvalidRequest(e);
+        } catch (IOException e) {
+            LOG.log(Logger.Level.ERROR, () -> config.errorProcessing() + ": " + e.getMessage());
+            var data = normalizeLogData(Json.createValue(e.getMessage()));
+            sendLogQuietly(new LoggingMessageNotification(LoggingLevel.ERROR, config.serverLoggerName(), data));
+        } catch (Exception e) {
+            LOG.log(Logger.Level.ERROR, () -> "Unexpected " + config.errorProcessing().toLowerCase(Locale.ROOT) + ": " + e.getMessage());
+            var data = normalizeLogData(Json.createValue(e.getMessage()));
+            sendLogQuietly(new LoggingMessageNotification(LoggingLevel.ERROR, config.serverLoggerName(), data));
         }
     }
 
@@ -224,7 +339,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                 try {
                     send(new JsonRpcNotification(
                             NotificationMethod.TOOLS_LIST_CHANGED.method(),
-                            TOOL_LIST_CHANGED_NOTIFICATION_JSON_CODEC.toJson(new ToolListChangedNotification())));
+                            TOOLS_LIST_CHANGED_PARAMS));
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -239,7 +354,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                 try {
                     send(new JsonRpcNotification(
                             NotificationMethod.PROMPTS_LIST_CHANGED.method(),
-                            PromptListChangedNotification.CODEC.toJson(new PromptListChangedNotification())));
+                            PROMPTS_LIST_CHANGED_PARAMS));
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -257,7 +372,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                 try {
                     send(new JsonRpcNotification(
                             NotificationMethod.RESOURCES_LIST_CHANGED.method(),
-                            RESOURCE_LIST_CHANGED_NOTIFICATION_JSON_CODEC.toJson(new ResourceListChangedNotification())));
+                            RESOURCES_LIST_CHANGED_PARAMS));
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -269,6 +384,69 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
+    private void subscribeListResultInvalidation() {
+        if (tools != null && tools.supportsListChanged()) {
+            listResultSubscriptions.add(tools.onListChanged(() -> {
+                listResults.invalidate(tools, RequestMethod.TOOLS_LIST);
+                toolResults.invalidate();
+            }));
+        }
+        if (prompts != null && prompts.supportsListChanged()) {
+            listResultSubscriptions.add(prompts.onListChanged(() -> listResults.invalidate(prompts, RequestMethod.PROMPTS_LIST)));
+        }
+        if (resources != null && resources.supportsListChanged()) {
+            listResultSubscriptions.add(resources.onListChanged(() -> {
+                listResults.invalidate(resources, RequestMethod.RESOURCES_LIST);
+                listResults.invalidate(resources, RequestMethod.RESOURCES_TEMPLATES_LIST);
+                templateGeneration.incrementAndGet();
+                templateIndex.set(null);
+                resourceListGeneration.incrementAndGet();
+            }));
+        }
+    }
+
+    private JsonObject listResult(RequestMethod method,
+                                  Provider<?> provider,
+                                  Cursor cursor,
+                                  int pageSize,
+                                  long accessFingerprint,
+                                  List<Root> roots,
+                                  Supplier<JsonObject> loader) {
+        if (!provider.supportsListChanged()) {
+            return loader.get();
+        }
+        return listResults.get(provider, method, cursor, pageSize, principal, accessFingerprint, roots, loader);
+    }
+
+    /// Page size the client asked for in `_meta`, capped at the configured maximum;
+    /// zero leaves the size to the provider.
+    private int pageSize(JsonObject params) {
+        return PageSizeCodec.fromMeta(params).map(n -> Math.min(n, config.maxPageSize())).orElse(0);
+    }
+
+    private static <T> Pagination.Page<T> page(Provider<T> provider, Cursor cursor, int pageSize) {
+        return pageSize == 0 ? provider.list(cursor) : provider.list(cursor, pageSize);
+    }
+
+    /// Outcome of the resource access policy for every audience combination, so cached
+    /// listings are only shared while the principal's effective access is unchanged.
+    private long resourceAccessFingerprint() {
+        var roles = Role.values();
+        var bits = resourceAllowed(null) ? 1L : 0L;
+        for (var mask = 0; mask < 1 << roles.length; mask++) {
+            var audience = EnumSet.noneOf(Role.class);
+            for (var i = 0; i < roles.length; i++) {
+                if ((mask & 1 << i) != 0) {
+                    audience.add(roles[i]);
+                }
+            }
+            if (resourceAllowed(new Annotations(audience, null, null))) {
+                bits |= 1L << (mask + 1);
+            }
+        }
+        return bits;
+    }
+
     private void registerHandlers(ResourceProvider resources,
                                   ToolProvider tools,
                                   PromptProvider prompts,
@@ -289,7 +467,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         if (tools != null) {
             registerRequest(RequestMethod.TOOLS_LIST, this::listTools);
-            registerRequest(RequestMethod.TOOLS_CALL, this::callTool);
+            registerCancellableRequest(RequestMethod.TOOLS_CALL, this::callTool);
         }
         if (prompts != null) {
             registerRequest(RequestMethod.PROMPTS_LIST, this::listPrompts);
@@ -297,9 +475,9 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         registerRequest(RequestMethod.LOGGING_SET_LEVEL, this::setLogLevel);
         if (completions != null) {
-            registerRequest(RequestMethod.COMPLETION_COMPLETE, this::complete);
+            registerCancellableRequest(RequestMethod.COMPLETION_COMPLETE, this::complete);
         }
-        registerRequest(RequestMethod.SAMPLING_CREATE_MESSAGE, this::handleCreateMessage);
+        registerCancellableRequest(RequestMethod.SAMPLING_CREATE_MESSAGE, this::handleCreateMessage);
     }
 
     private Optional<JsonObject> receiveMessage() {
@@ -321,6 +499,14 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         return Optional.empty();
     }
 
+    private void sendLogQuietly(LoggingMessageNotification note) {
+        try {
+            sendLog(note);
+        } catch (IOException ioe) {
+            LOG.log(Logger.Level.ERROR, () -> "Failed to send error: " + ioe.getMessage());
+        }
+    }
+
     private void logAndRespond(String prefix,
                                LoggingLevel logLevel,
                                String logger,
@@ -353,23 +539,20 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
-    private void scheduleResourceSnapshot(URI uri) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(50);
-                if (!resourceSubscriptions.containsKey(uri)) {
-                    return;
-                }
-                var title = resources.get(uri).map(Resource::title).orElse(null);
-                send(new JsonRpcNotification(
-                        NotificationMethod.RESOURCES_UPDATED.method(),
-                        RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC.toJson(new ResourceUpdatedNotification(uri, title))));
-            } catch (IOException e) {
-                LOG.log(Logger.Level.WARNING, () -> "Failed to send initial resource update: " + e.getMessage());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        });
+    /// Sent once the subscribe response is on the wire, so the client always sees
+    /// the response before the first update.
+    private void sendResourceSnapshot(URI uri) {
+        if (!resourceSubscriptions.containsKey(uri)) {
+            return;
+        }
+        try {
+            var title = resources.get(uri).map(Resource::title).orElse(null);
+            send(new JsonRpcNotification(
+                    NotificationMethod.RESOURCES_UPDATED.method(),
+                    RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC.toJson(new ResourceUpdatedNotification(uri, title))));
+        } catch (IOException e) {
+            LOG.log(Logger.Level.WARNING, () -> "Failed to send initial resource update: " + e.getMessage());
+        }
     }
 
     private JsonValue normalizeLogData(JsonValue value) {
@@ -408,8 +591,21 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
     private JsonRpcMessage initialize(JsonRpcRequest req) {
         var init = INITIALIZE_REQUEST_CODEC.fromJson(req.params());
         var resp = lifecycle.initialize(init, serverFeatures());
-        var json = INITIALIZE_RESPONSE_CODEC.toJson(resp);
-        return new JsonRpcResponse(req.id(), json);
+        return new JsonRpcResponse(req.id(), initializeResult(resp));
+    }
+
+    private static JsonFragment initializeResult(InitializeResponse resp) {
+        synchronized (INITIALIZE_RESULTS) {
+            var cached = INITIALIZE_RESULTS.get(resp);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        var fragment = JsonFragment.of(INITIALIZE_RESPONSE_CODEC.toJson(resp));
+        synchronized (INITIALIZE_RESULTS) {
+            INITIALIZE_RESULTS.putIfAbsent(resp, fragment);
+        }
+        return fragment;
     }
 
     private void initialized(JsonRpcNotification ignored) {
@@ -426,7 +622,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                 return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, "Invalid params");
             }
         }
-        return new JsonRpcResponse(req.id(), Json.createObjectBuilder().build());
+        return new JsonRpcResponse(req.id(), JsonFragment.EMPTY);
     }
 
     private Set<ServerFeature> serverFeatures() {
@@ -452,6 +648,15 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
+    /// The default provider timeout, shortened to what is left of the caller's deadline.
+    private Duration remaining(JsonObject params) {
+        var timeout = config.defaultTimeoutMs();
+        return DeadlineCodec.fromMeta(params)
+                .map(deadline -> Duration.between(Instant.now(), deadline))
+                .filter(left -> left.compareTo(timeout) < 0)
+                .orElse(timeout);
+    }
+
     private Duration normalizeTimeout(Duration timeout) {
         if (timeout == null || timeout.isZero() || timeout.isNegative()) {
             return config.defaultTimeoutMs();
@@ -459,6 +664,16 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         return timeout;
     }
 
+    /// Charges a request against its per-key limiter and the enclosing quotas; a
+    /// rejection carries a `retryAfterMs` hint in its error data.
+    private Optional<JsonRpcError> throttle(RequestId id, RateLimiter limiter, String key) {
+        return quota.acquire(limiter, key).map(rejection -> JsonRpcError.of(
+                id,
+                config.rateLimitErrorCode(),
+                rejection.message(),
+                Json.createObjectBuilder().add("retryAfterMs", rejection.retryAfterMillis()).build()));
+    }
+
     private Optional<String> rateLimit(RateLimiter limiter, String key) {
         try {
             limiter.requireAllowance(key);
@@ -471,7 +686,6 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
     private void cancelled(JsonRpcNotification note) {
         var cn = CANCELLED_NOTIFICATION_JSON_CODEC.fromJson(note.params());
         var reason = progress.cancel(cn.requestId(), cn.reason());
-        progress.release(cn.requestId());
         try {
             var payload = reason.<JsonValue>map(Json::createValue).orElse(JsonValue.NULL);
             sendLog(new LoggingMessageNotification(LoggingLevel.INFO, config.cancellationLoggerName(), normalizeLogData(payload)));
@@ -489,8 +703,11 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         try {
             var pageReq = PAGINATED_REQUEST_CODEC.fromJson(req.params());
             var cursor = CursorUtil.sanitize(pageReq.cursor());
-            var page = tools.list(cursor);
-            var json = LIST_TOOLS_RESULT_JSON_CODEC.toJson(new ListToolsResult(page.items(), page.nextCursor(), null));
+            var pageSize = pageSize(req.params());
+            var json = listResult(RequestMethod.TOOLS_LIST, tools, cursor, pageSize, 0L, List.of(), () -> {
+                var page = page(tools, cursor, pageSize);
+                return LIST_TOOLS_RESULT_JSON_CODEC.toJson(new ListToolsResult(page.items(), page.nextCursor(), null));
+            });
             return new JsonRpcResponse(req.id(), json);
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
@@ -499,11 +716,76 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
 
     private JsonRpcMessage invokeTool(JsonRpcRequest req, Tool tool, JsonObject args) {
         try {
-            var result = tools.call(tool.name(), args);
-            return new JsonRpcResponse(req.id(), TOOL_RESULT_CODEC.toJson(result));
+            JsonSchemaValidator.compile(tool.inputSchema());
+            if (tool.outputSchema() != null) {
+                JsonSchemaValidator.compile(tool.outputSchema());
+            }
+        } catch (IllegalArgumentException e) {
+            return JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, "Invalid tool schema: " + e.getMessage());
+        }
+        try {
+            JsonSchemaValidator.validate(tool.inputSchema(), args);
         } catch (IllegalArgumentException e) {
             return recoverTool(req, tool, e);
         }
+        if (toolResults.enabled() && cacheable(tool)) {
+            return toolResults.call(req.id(), tool.name(), args, () -> executeTool(req, tool, args),
+                    () -> progress.isCancelled(req.id()) || Thread.currentThread().isInterrupted());
+        }
+        return executeTool(req, tool, args);
+    }
+
+    /// Only tools that declare themselves both read-only and idempotent may have
+    /// their results reused.
+    private static boolean cacheable(Tool tool) {
+        var annotations = tool.annotations();
+        return annotations != null
+                && Boolean.TRUE.equals(annotations.readOnlyHint())
+                && Boolean.TRUE.equals(annotations.idempotentHint());
+    }
+
+    private JsonRpcMessage executeTool(JsonRpcRequest req, Tool tool, JsonObject args) {
+        Optional<ToolResult> result;
+        try {
+            result = callWithPermit(req, tool, args);
+        } catch (IllegalArgumentException e) {
+            return recoverTool(req, tool, e);
+        }
+        return result.map(r -> toolResponse(req, tool, r)).orElseGet(() -> toolOverloaded(req, tool));
+    }
+
+    /// Calls the tool under a concurrency permit; empty if none became available before
+    /// the request's deadline.
+    private Optional<ToolResult> callWithPermit(JsonRpcRequest req, Tool tool, JsonObject args) {
+        var timeout = remaining(req.params());
+        var permit = toolConcurrency.acquire(tool.name(), timeout);
+        if (permit.isEmpty()) {
+            return Optional.empty();
+        }
+        var success = false;
+        try {
+            var result = tools.call(tool.name(), args, timeout);
+            success = true;
+            return Optional.of(result);
+        } finally {
+            permit.get().release(success);
+        }
+    }
+
+    private JsonRpcMessage toolOverloaded(JsonRpcRequest req, Tool tool) {
+        return JsonRpcError.of(req.id(), config.overloadErrorCode(), "Tool overloaded: " + tool.name());
+    }
+
+    private JsonRpcMessage toolResponse(JsonRpcRequest req, Tool tool, ToolResult result) {
+        if (tool.outputSchema() != null && result.structuredContent() != null && !Boolean.TRUE.equals(result.isError())) {
+            var violations = JsonSchemaValidator.validateAll(tool.outputSchema(), result.structuredContent());
+            if (!violations.isEmpty()) {
+                return JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR,
+                        "Invalid structured content: " + violations.getFirst(),
+                        Json.createArrayBuilder(violations).build());
+            }
+        }
+        return new JsonRpcResponse(req.id(), TOOL_RESULT_CODEC.toJson(result));
     }
 
     private JsonRpcMessage recoverTool(JsonRpcRequest req, Tool tool, IllegalArgumentException failure) {
@@ -515,12 +797,13 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
                     "Provide arguments for tool '" + tool.name() + "'",
                     tool.inputSchema(),
                     null);
-            var res = elicit(er);
+            var res = elicit(er, remaining(req.params()));
             if (res.action() != ElicitationAction.ACCEPT) {
                 return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, "Tool invocation cancelled");
             }
-            var result = tools.call(tool.name(), res.content());
-            return new JsonRpcResponse(req.id(), TOOL_RESULT_CODEC.toJson(result));
+            return callWithPermit(req, tool, res.content())
+                    .map(r -> toolResponse(req, tool, r))
+                    .orElseGet(() -> toolOverloaded(req, tool));
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         } catch (Exception e) {
@@ -536,9 +819,9 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
-        var limit = rateLimit(toolLimiter, callRequest.name());
+        var limit = throttle(req.id(), toolLimiter, callRequest.name());
         if (limit.isPresent()) {
-            return JsonRpcError.of(req.id(), config.rateLimitErrorCode(), limit.get());
+            return limit.get();
         }
         var tool = tools.find(callRequest.name()).orElse(null);
         if (tool == null) {
@@ -561,8 +844,12 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         try {
             var pageReq = PAGINATED_REQUEST_CODEC.fromJson(req.params());
             var cursor = CursorUtil.sanitize(pageReq.cursor());
-            var page = prompts.list(cursor);
-            return new JsonRpcResponse(req.id(), LIST_PROMPTS_RESULT_CODEC.toJson(new ListPromptsResult(page.items(), page.nextCursor(), null)));
+            var pageSize = pageSize(req.params());
+            var json = listResult(RequestMethod.PROMPTS_LIST, prompts, cursor, pageSize, 0L, List.of(), () -> {
+                var page = page(prompts, cursor, pageSize);
+                return LIST_PROMPTS_RESULT_CODEC.toJson(new ListPromptsResult(page.items(), page.nextCursor(), null));
+            });
+            return new JsonRpcResponse(req.id(), json);
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
@@ -590,57 +877,78 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         var progressToken = ProgressTokenCodec.fromMeta(req.params());
         try {
+            var since = ResourceCatalogCodec.since(req.params());
+            if (since.isPresent() && resources.supportsListChanged()) {
+                return new JsonRpcResponse(req.id(), ResourceCatalogCodec.toJson(resourceChanges(since.get())));
+            }
             var pageReq = PAGINATED_REQUEST_CODEC.fromJson(req.params());
             var cursor = CursorUtil.sanitize(pageReq.cursor());
+            var pageSize = pageSize(req.params());
             progressToken.ifPresent(t -> sendResourceProgress(t, 0.0, "Starting resource list"));
-            var page = resources.list(cursor);
-            progressToken.ifPresent(t -> sendResourceProgress(t, 0.5, "Filtering resources"));
-            var filtered = page.items().stream()
-                    .filter(r -> resourceAllowed(r.annotations()) && RootChecker.withinRoots(r.uri(), rootsManager.roots()))
-                    .toList();
+            var json = listResult(RequestMethod.RESOURCES_LIST, resources, cursor, pageSize,
+                    resourceAccessFingerprint(), rootsManager.roots(), () -> {
+                        var page = page(resources, cursor, pageSize);
+                        progressToken.ifPresent(t -> sendResourceProgress(t, 0.5, "Filtering resources"));
+                        var roots = rootsManager.index();
+                        var filtered = page.items().stream()
+                                .filter(r -> resourceAllowed(r.annotations()) && RootChecker.withinRoots(r.uri(), roots))
+                                .toList();
+                        return LIST_RESOURCES_RESULT_CODEC.toJson(new ListResourcesResult(filtered, page.nextCursor(), null));
+                    });
             progressToken.ifPresent(t -> sendResourceProgress(t, 1.0, "Completed resource list"));
-            var result = new ListResourcesResult(filtered, page.nextCursor(), null);
-            return new JsonRpcResponse(req.id(), AbstractEntityCodec.paginatedResult(
-                    "resources",
-                    "resource",
-                    r -> new Pagination.Page<>(r.resources(), r.nextCursor()),
-                    ListResourcesResult::_meta,
-                    new ResourceAbstractEntityCodec(),
-                    (p, meta) -> new ListResourcesResult(p.items(), p.nextCursor(), meta)).toJson(result));
+            return new JsonRpcResponse(req.id(), json);
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
     }
 
+    /// Diffs the visible catalogue against the client's version. The listing is only
+    /// re-read after a provider list change, a roots change or an access policy change.
+    /// Only offered for providers that report list changes; others get ordinary pages.
+    private ResourceChanges resourceChanges(String since) {
+        var stamp = List.of(resourceListGeneration.get(), rootsManager.version(), resourceAccessFingerprint());
+        return resourceCatalog.changesSince(since, stamp, () -> {
+            var roots = rootsManager.index();
+            var visible = new ArrayList<Resource>();
+            Cursor cursor = Cursor.Start.INSTANCE;
+            do {
+                var page = resources.list(cursor);
+                page.items().stream()
+                        .filter(r -> resourceAllowed(r.annotations()) && RootChecker.withinRoots(r.uri(), roots))
+                        .forEach(visible::add);
+                cursor = page.nextCursor();
+            } while (!(cursor instanceof Cursor.End));
+            return visible;
+        });
+    }
+
     private JsonRpcMessage readResource(JsonRpcRequest req) {
         ReadResourceRequest rrr;
+        Optional<String> known;
         try {
             rrr = (new ReadResourceRequestAbstractEntityCodec()).fromJson(req.params());
+            known = ResourceVersionCodec.fromMeta(req.params());
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, "Invalid params");
         }
-        return withExistingResource(req, rrr.uri(), block -> {
-            var result = new ReadResourceResult(List.of(block), null);
-            return new JsonRpcResponse(req.id(), new ReadResourceResultJsonCodec().toJson(result));
-        });
+        return withExistingResource(req, rrr.uri(), known, (block, etag) -> new JsonRpcResponse(req.id(),
+                READ_RESOURCE_RESULT_CODEC.toJson(new ReadResourceResult(List.of(block), ResourceVersionCodec.meta(etag)))));
     }
 
     private JsonRpcMessage listResourceTemplates(JsonRpcRequest req) {
         try {
             var pageReq = PAGINATED_REQUEST_CODEC.fromJson(req.params());
             var cursor = CursorUtil.sanitize(pageReq.cursor());
-            var page = resources.listTemplates(cursor);
-            var filtered = page.items().stream()
-                    .filter(t -> resourceAllowed(t.annotations()))
-                    .toList();
-            var result = new ListResourceTemplatesResult(filtered, page.nextCursor(), null);
-            return new JsonRpcResponse(req.id(), AbstractEntityCodec.paginatedResult(
-                    "resourceTemplates",
-                    "resourceTemplate",
-                    r -> new Pagination.Page<>(r.resourceTemplates(), r.nextCursor()),
-                    ListResourceTemplatesResult::_meta,
-                    new ResourceTemplateAbstractEntityCodec(),
-                    (p, meta) -> new ListResourceTemplatesResult(p.items(), p.nextCursor(), meta)).toJson(result));
+            var pageSize = pageSize(req.params());
+            var json = listResult(RequestMethod.RESOURCES_TEMPLATES_LIST, resources, cursor, pageSize,
+                    resourceAccessFingerprint(), List.of(), () -> {
+                        var page = pageSize == 0 ? resources.listTemplates(cursor) : resources.listTemplates(cursor, pageSize);
+                        var filtered = page.items().stream()
+                                .filter(t -> resourceAllowed(t.annotations()))
+                                .toList();
+                        return LIST_RESOURCE_TEMPLATES_RESULT_CODEC.toJson(new ListResourceTemplatesResult(filtered, page.nextCursor(), null));
+                    });
+            return new JsonRpcResponse(req.id(), json);
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
@@ -654,31 +962,28 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
         var uri = sr.uri();
-        return withAccessibleUri(req, uri, () -> {
-            if (resources.get(uri).isEmpty()) {
-                return JsonRpcError.of(req.id(), -32002, "Resource not found",
-                        Json.createObjectBuilder().add("uri", uri.toString()).build());
+        return withAccessibleUri(req, uri, access -> {
+            if (access.metadata().isEmpty()) {
+                return resourceNotFound(req.id(), uri);
             }
             if (resourceSubscriptions.containsKey(uri)) {
                 return JsonRpcError.of(req.id(), -32602, "Already subscribed to resource",
                         Json.createObjectBuilder().add("uri", uri.toString()).build());
             }
             try {
-                var sub = resources.subscribe(uri, update -> {
+                var sub = resourceHub.subscribe(uri, params -> {
                     try {
-                        var n = new ResourceUpdatedNotification(update.uri(), update.title());
-                        send(new JsonRpcNotification(NotificationMethod.RESOURCES_UPDATED.method(),
-                                RESOURCE_UPDATED_NOTIFICATION_JSON_CODEC.toJson(n)));
+                        send(new JsonRpcNotification(NotificationMethod.RESOURCES_UPDATED.method(), params));
                     } catch (IOException e) {
-                        throw new RuntimeException(e);
+                        throw new UncheckedIOException(e);
                     }
                 });
                 resourceSubscriptions.put(uri, sub);
-                scheduleResourceSnapshot(uri);
+                afterResponse(req.id(), () -> sendResourceSnapshot(uri));
             } catch (Exception e) {
                 return JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, e.getMessage());
             }
-            return new JsonRpcResponse(req.id(), JsonValue.EMPTY_JSON_OBJECT);
+            return new JsonRpcResponse(req.id(), JsonFragment.EMPTY);
         });
     }
 
@@ -690,14 +995,14 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
         }
         var uri = ur.uri();
-        return withAccessibleUri(req, uri, () -> {
+        return withAccessibleUri(req, uri, access -> {
             if (!resourceSubscriptions.containsKey(uri)) {
                 return JsonRpcError.of(req.id(), -32602, "No active subscription for resource",
                         Json.createObjectBuilder().add("uri", uri.toString()).build());
             }
             var sub = resourceSubscriptions.remove(uri);
             CloseUtil.close(sub);
-            return new JsonRpcResponse(req.id(), JsonValue.EMPTY_JSON_OBJECT);
+            return new JsonRpcResponse(req.id(), JsonFragment.EMPTY);
         });
     }
 
@@ -710,14 +1015,13 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
-    private boolean canAccessResource(URI uri) {
-        if (!RootChecker.withinRoots(uri, rootsManager.roots())) {
-            return false;
-        }
-        return resources.get(uri)
-                .map(Resource::annotations)
-                .map(this::resourceAllowed)
-                .orElse(true);
+    /// Looks up a resource's metadata once and decides access from the in-memory roots
+    /// index and the access policy, before any content is read.
+    private ResourceAccess resolveResource(URI uri) {
+        var metadata = resources.get(uri);
+        var allowed = RootChecker.canAccess(uri, rootsManager.index())
+                && metadata.map(Resource::annotations).map(this::resourceAllowed).orElse(true);
+        return new ResourceAccess(metadata, allowed);
     }
 
     private void sendResourceProgress(ProgressToken token, double current, String message) {
@@ -729,24 +1033,81 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
-    private JsonRpcMessage withAccessibleUri(JsonRpcRequest req, URI uri, Supplier<JsonRpcMessage> action) {
-        if (!canAccessResource(uri)) {
-            return JsonRpcError.of(req.id(), -32002, "Resource not found",
-                    Json.createObjectBuilder().add("uri", uri.toString()).build());
+    private JsonRpcMessage withAccessibleUri(JsonRpcRequest req, URI uri, Function<ResourceAccess, JsonRpcMessage> action) {
+        var access = resolveResource(uri);
+        if (!access.allowed()) {
+            return resourceNotFound(req.id(), uri);
         }
-        return action.get();
+        return action.apply(access);
     }
 
-    private JsonRpcMessage withExistingResource(JsonRpcRequest req, URI uri, Function<ResourceBlock, JsonRpcMessage> action) {
-        var block = resources.read(uri);
+    /// Reads `uri` once access is granted and hands the block and its etag to
+    /// `action`. When the client's `known` etag is current the result is not modified;
+    /// a provider that reports content versions is not read at all in that case.
+    private JsonRpcMessage withExistingResource(JsonRpcRequest req,
+                                                URI uri,
+                                                Optional<String> known,
+                                                BiFunction<ResourceBlock, String, JsonRpcMessage> action) {
+        var access = resolveResource(uri);
+        if (!access.allowed()) {
+            return access.metadata().isEmpty()
+                    ? resourceNotFound(req.id(), uri)
+                    : JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, "Access denied");
+        }
+        Optional<UriTemplateIndex.Match> match = Optional.empty();
+        if (access.metadata().isEmpty()) {
+            // an unlisted URI may still be readable directly when no template claims it
+            match = templateIndex().match(uri);
+            if (match.isPresent() && !resourceAllowed(match.get().template().annotations())) {
+                return JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, "Access denied");
+            }
+        }
+        var version = resources.version(uri).map(ResourceVersionCodec::etag);
+        if (version.isPresent() && version.equals(known)) {
+            return new JsonRpcResponse(req.id(), ResourceVersionCodec.notModified(version.get()));
+        }
+        var block = match.isPresent()
+                ? resources.read(uri, match.get().template(), match.get().variables())
+                : resources.read(uri);
         if (block == null) {
-            return JsonRpcError.of(req.id(), -32002, "Resource not found",
-                    Json.createObjectBuilder().add("uri", uri.toString()).build());
+            return resourceNotFound(req.id(), uri);
         }
-        if (!canAccessResource(uri)) {
-            return JsonRpcError.of(req.id(), JsonRpcErrorCode.INTERNAL_ERROR, "Access denied");
+        var etag = version.orElseGet(() -> ResourceVersionCodec.etag(block));
+        if (known.filter(etag::equals).isPresent()) {
+            return new JsonRpcResponse(req.id(), ResourceVersionCodec.notModified(etag));
         }
-        return action.apply(block);
+        return action.apply(block, etag);
+    }
+
+    /// Compiles every template the provider lists into a match index on first use; a
+    /// resource list change discards it. A provider that cannot report list changes is
+    /// re-listed once the index is older than [#TEMPLATE_INDEX_TTL_NANOS]. An index
+    /// built across a change is not kept.
+    private UriTemplateIndex templateIndex() {
+        var cached = templateIndex.get();
+        if (cached != null && (resources.supportsListChanged()
+                || System.nanoTime() - cached.builtAt() < TEMPLATE_INDEX_TTL_NANOS)) {
+            return cached.index();
+        }
+        var generation = templateGeneration.get();
+        var builtAt = System.nanoTime();
+        var templates = new ArrayList<ResourceTemplate>();
+        Cursor cursor = Cursor.Start.INSTANCE;
+        do {
+            var page = resources.listTemplates(cursor);
+            templates.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (!(cursor instanceof Cursor.End));
+        var index = UriTemplateIndex.of(templates);
+        if (templateGeneration.get() == generation) {
+            templateIndex.compareAndSet(cached, new TemplateIndex(index, builtAt));
+        }
+        return index;
+    }
+
+    private static JsonRpcError resourceNotFound(RequestId id, URI uri) {
+        return JsonRpcError.of(id, -32002, "Resource not found",
+                Json.createObjectBuilder().add("uri", uri.toString()).build());
     }
 
     private JsonRpcMessage setLogLevel(JsonRpcRequest req) {
@@ -757,7 +1118,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         try {
             logLevel.set(SET_LEVEL_REQUEST_JSON_CODEC.fromJson(params).level());
-            return new JsonRpcResponse(req.id(), JsonValue.EMPTY_JSON_OBJECT);
+            return new JsonRpcResponse(req.id(), JsonFragment.EMPTY);
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, "Invalid params");
         }
@@ -784,9 +1145,9 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         try {
             var request = COMPLETE_REQUEST_JSON_CODEC.fromJson(params);
-            var limit = rateLimit(completionLimiter, request.ref().toString());
+            var limit = throttle(req.id(), completionLimiter, request.ref().toString());
             if (limit.isPresent()) {
-                return JsonRpcError.of(req.id(), config.rateLimitErrorCode(), limit.get());
+                return limit.get();
             }
             var result = completions.complete(request);
             return new JsonRpcResponse(req.id(), new CompleteResultJsonCodec().toJson(result));
@@ -800,23 +1161,26 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
     }
 
+    /// Sends a request to the client and waits for its response, which the serve loop
+    /// delivers. Must be called from a request worker or another thread, never from the
+    /// serve loop itself.
     private JsonRpcMessage request(RequestMethod method, JsonObject params, Duration timeout) throws IOException {
+        if (Thread.currentThread() == serveThread) {
+            throw new IllegalStateException("Client requests cannot be issued from the serve loop");
+        }
         var id = nextId();
-        var future = new CompletableFuture<JsonRpcMessage>();
-        pending.put(id, future);
-        send(new JsonRpcRequest(id, method.method(), params));
-        return awaitAndProcess(
-                id,
-                future,
-                normalizeTimeout(timeout),
-                this::receiveMessage,
-                this::handleInvalidRequest,
-                config.errorTimeout());
+        var future = expect(id, normalizeTimeout(timeout), config.errorTimeout());
+        try {
+            send(new JsonRpcRequest(id, method.method(), params));
+            return await(future);
+        } finally {
+            future.cancel(false);
+        }
     }
 
-    private ElicitResult elicit(ElicitRequest req) throws IOException {
+    private ElicitResult elicit(ElicitRequest req, Duration timeout) throws IOException {
         lifecycle.requireClientCapability(ClientCapability.ELICITATION);
-        var msg = request(RequestMethod.ELICITATION_CREATE, new ElicitRequestJsonCodec().toJson(req), config.defaultTimeoutMs());
+        var msg = request(RequestMethod.ELICITATION_CREATE, new ElicitRequestJsonCodec().toJson(req), timeout);
         if (msg instanceof JsonRpcResponse resp) {
             var er = new ElicitResultJsonCodec().fromJson(resp.result());
             if (er.action() == ElicitationAction.ACCEPT) {
@@ -827,11 +1191,11 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         throw new IOException(((JsonRpcError) msg).error().message());
     }
 
-    private CreateMessageResponse createMessage(CreateMessageRequest req) throws IOException {
+    private CreateMessageResponse createMessage(CreateMessageRequest req, Duration timeout) throws IOException {
         lifecycle.requireClientCapability(ClientCapability.SAMPLING);
         samplingAccessPolicy.requireAllowed(principal);
         try {
-            return sampling.createMessage(req, config.defaultTimeoutMs());
+            return sampling.createMessage(req, timeout);
         } catch (InterruptedException e) {
             throw new IOException(e);
         }
@@ -844,7 +1208,7 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         try {
             var cmr = new CreateMessageRequestJsonCodec().fromJson(params);
-            var resp = createMessage(cmr);
+            var resp = createMessage(cmr, remaining(params));
             return new JsonRpcResponse(req.id(), new CreateMessageResponseAbstractEntityCodec().toJson(resp));
         } catch (IllegalArgumentException e) {
             return JsonRpcError.of(req.id(), JsonRpcErrorCode.INVALID_PARAMS, e.getMessage());
@@ -857,13 +1221,16 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
     public void close() throws IOException {
         lifecycle.shutdown();
         resourceSubscriptions.values().forEach(CloseUtil::close);
+        listResultSubscriptions.forEach(CloseUtil::close);
+        listResultSubscriptions.clear();
+        // tools and prompts are loaded per session; the resource provider outlives it
+        listResults.release(tools);
+        listResults.release(prompts);
         if (resourceListSubscription != null) {
             CloseUtil.close(resourceListSubscription);
             resourceListSubscription = null;
         }
-        if (resources != null) {
-            resources.close();
-        }
+        resourceHub.close();
         if (toolListSubscription != null) {
             CloseUtil.close(toolListSubscription);
             toolListSubscription = null;
@@ -880,4 +1247,10 @@ public final class ServerRuntime extends JsonRpcEndpoint implements McpServer {
         }
         transport.close();
     }
+
+    private record TemplateIndex(UriTemplateIndex index, long builtAt) {
+    }
+
+    private record ResourceAccess(Optional<Resource> metadata, boolean allowed) {
+    }
 }
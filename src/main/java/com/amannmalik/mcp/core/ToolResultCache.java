@@ -0,0 +1,210 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.api.JsonRpcMessage;
+import com.amannmalik.mcp.api.RequestId;
+import com.amannmalik.mcp.codec.JsonFragment;
+import com.amannmalik.mcp.jsonrpc.*;
+import jakarta.json.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/// Results of read-only, idempotent tools keyed by tool name and a SHA-256 digest of
+/// the canonicalised arguments. Entries expire after a fixed TTL and are evicted
+/// least-recently-used once their encoded size exceeds the byte budget. Concurrent
+/// identical calls share a single execution; only successful results are stored,
+/// and a load that races with an invalidation is returned but not stored. Caching
+/// is off unless both the TTL and the byte budget are positive.
+final class ToolResultCache {
+    private final long ttlNanos;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<Key, CompletableFuture<JsonRpcMessage>> inFlight = new ConcurrentHashMap<>();
+    private long bytes;
+    private long generation;
+
+    ToolResultCache(Duration ttl, long maxBytes) {
+        if (ttl.isNegative() || maxBytes < 0) {
+            throw new IllegalArgumentException("Invalid tool result cache configuration");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxBytes = maxBytes;
+    }
+
+    boolean enabled() {
+        return ttlNanos > 0 && maxBytes > 0;
+    }
+
+    /// Returns the cached or shared result for `tool` with `args`, running `loader`
+    /// when neither exists. An outcome the leader produced after `cancelled` became
+    /// true is neither stored nor shared; waiting callers retry and one of them runs
+    /// the tool again.
+    JsonRpcMessage call(RequestId id, String tool, JsonObject args, Supplier<JsonRpcMessage> loader, BooleanSupplier cancelled) {
+        var key = new Key(tool, digest(args));
+        while (true) {
+            long observed;
+            lock.lock();
+            try {
+                var entry = entries.get(key);
+                if (entry != null) {
+                    if (System.nanoTime() - entry.expiresAt() < 0) {
+                        return new JsonRpcResponse(id, entry.result());
+                    }
+                    remove(key);
+                }
+                observed = generation;
+            } finally {
+                lock.unlock();
+            }
+            var future = new CompletableFuture<JsonRpcMessage>();
+            var leader = inFlight.putIfAbsent(key, future);
+            if (leader != null) {
+                var shared = follow(id, leader);
+                if (shared.isPresent()) {
+                    return shared.get();
+                }
+                continue;
+            }
+            try {
+                var msg = loader.get();
+                if (cancelled.getAsBoolean()) {
+                    // withdraw before waking followers so one of them can take over
+                    inFlight.remove(key, future);
+                    future.complete(null);
+                    return msg;
+                }
+                store(key, msg, observed);
+                future.complete(msg);
+                return msg;
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+    }
+
+    void invalidate() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Empty when the leader was cancelled and left no outcome to share.
+    private static Optional<JsonRpcMessage> follow(RequestId id, CompletableFuture<JsonRpcMessage> leader) {
+        try {
+            var msg = leader.get();
+            return switch (msg) {
+                case null -> Optional.empty();
+                case JsonRpcResponse r -> Optional.of(new JsonRpcResponse(id, r.result()));
+                case JsonRpcError e -> Optional.of(new JsonRpcError(id, e.error()));
+                default -> throw new IllegalStateException("Unexpected tool response");
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.of(JsonRpcError.of(id, JsonRpcErrorCode.INTERNAL_ERROR, "Interrupted"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void store(Key key, JsonRpcMessage msg, long observed) {
+        if (!(msg instanceof JsonRpcResponse r) || r.result().getBoolean("isError", false)) {
+            return;
+        }
+        var fragment = JsonFragment.of(r.result());
+        var size = fragment.utf8().length;
+        if (size > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation != observed) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(fragment, System.nanoTime() + ttlNanos, size));
+            bytes += size;
+            var it = entries.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().bytes();
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Key key) {
+        var previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= previous.bytes();
+        }
+    }
+
+    private static String digest(JsonObject args) {
+        var canonical = new StringBuilder();
+        canonicalize(args == null ? JsonValue.EMPTY_JSON_OBJECT : args, canonical);
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Writes `value` with object members sorted by name and numbers in plain
+    /// notation without trailing zeros, so equivalent arguments hash identically.
+    private static void canonicalize(JsonValue value, StringBuilder out) {
+        switch (value) {
+            case JsonObject o -> {
+                out.append('{');
+                var first = true;
+                for (var name : new TreeSet<>(o.keySet())) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    first = false;
+                    out.append(Json.createValue(name)).append(':');
+                    canonicalize(o.get(name), out);
+                }
+                out.append('}');
+            }
+            case JsonArray a -> {
+                out.append('[');
+                for (var i = 0; i < a.size(); i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    canonicalize(a.get(i), out);
+                }
+                out.append(']');
+            }
+            case JsonNumber n -> out.append(n.bigDecimalValue().stripTrailingZeros().toPlainString());
+            default -> out.append(value);
+        }
+    }
+
+    private record Key(String tool, String argsDigest) {
+    }
+
+    private record Entry(JsonFragment result, long expiresAt, int bytes) {
+    }
+}
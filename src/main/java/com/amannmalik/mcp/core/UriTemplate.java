@@ -0,0 +1,181 @@
+package com.amannmalik.mcp.core;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/// [RFC 6570](https://www.rfc-editor.org/rfc/rfc6570) URI template compiled for
+/// matching concrete URIs. Literals match exactly and each expression captures its
+/// variables according to its operator; query expressions (`?` and `&`) must close
+/// the template and match their parameters by name in any order. Exploded and
+/// multi-variable values are returned as matched, separators included.
+final class UriTemplate {
+    private static final String OPERATORS = "+#./;?&";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.]|%[0-9A-Fa-f]{2}");
+
+    private final String source;
+    private final Pattern pattern;
+    private final List<String> captured;
+    private final Set<String> queryVariables;
+    private final String literalPrefix;
+
+    private UriTemplate(String source, Pattern pattern, List<String> captured, Set<String> queryVariables, String literalPrefix) {
+        this.source = source;
+        this.pattern = pattern;
+        this.captured = captured;
+        this.queryVariables = queryVariables;
+        this.literalPrefix = literalPrefix;
+    }
+
+    static UriTemplate compile(String template) {
+        Objects.requireNonNull(template, "template");
+        var regex = new StringBuilder();
+        var captured = new ArrayList<String>();
+        var query = new LinkedHashSet<String>();
+        String literalPrefix = null;
+        var i = 0;
+        while (i < template.length()) {
+            var open = template.indexOf('{', i);
+            var end = open < 0 ? template.length() : open;
+            if (end > i) {
+                if (!query.isEmpty()) {
+                    throw new IllegalArgumentException("Query expressions must end the URI template: " + template);
+                }
+                var literal = template.substring(i, end);
+                if (literal.indexOf('}') >= 0) {
+                    throw new IllegalArgumentException("Unbalanced braces in URI template: " + template);
+                }
+                regex.append(Pattern.quote(literal));
+            }
+            if (literalPrefix == null && open >= 0) {
+                literalPrefix = template.substring(0, open);
+            }
+            if (open < 0) {
+                break;
+            }
+            var close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unbalanced braces in URI template: " + template);
+            }
+            expression(template.substring(open + 1, close), regex, captured, query);
+            i = close + 1;
+        }
+        if (!query.isEmpty()) {
+            regex.append("(?:\\?([^#]*))?");
+        }
+        return new UriTemplate(template, Pattern.compile(regex.toString()), List.copyOf(captured),
+                Set.copyOf(query), literalPrefix == null ? template : literalPrefix);
+    }
+
+    String source() {
+        return source;
+    }
+
+    /// Literal text before the first expression; the whole template if it has none.
+    String literalPrefix() {
+        return literalPrefix;
+    }
+
+    Optional<Map<String, String>> match(String uri) {
+        var m = pattern.matcher(uri);
+        if (!m.matches()) {
+            return Optional.empty();
+        }
+        var variables = new LinkedHashMap<String, String>();
+        for (var g = 0; g < captured.size(); g++) {
+            var value = m.group(g + 1);
+            if (value != null) {
+                variables.put(captured.get(g), decode(value));
+            }
+        }
+        if (!queryVariables.isEmpty() && m.group(captured.size() + 1) != null) {
+            for (var pair : m.group(captured.size() + 1).split("&")) {
+                var eq = pair.indexOf('=');
+                var name = decode(eq < 0 ? pair : pair.substring(0, eq));
+                if (queryVariables.contains(name)) {
+                    variables.putIfAbsent(name, eq < 0 ? "" : decode(pair.substring(eq + 1)));
+                }
+            }
+        }
+        return Optional.of(Map.copyOf(variables));
+    }
+
+    private static void expression(String body, StringBuilder regex, List<String> captured, Set<String> query) {
+        if (body.isEmpty()) {
+            throw new IllegalArgumentException("Empty URI template expression");
+        }
+        var op = OPERATORS.indexOf(body.charAt(0)) >= 0 ? body.charAt(0) : '\0';
+        var specs = (op == '\0' ? body : body.substring(1)).split(",", -1);
+        if (op == '?' || op == '&') {
+            for (var spec : specs) {
+                query.add(name(spec));
+            }
+            return;
+        }
+        if (!query.isEmpty()) {
+            throw new IllegalArgumentException("Query expressions must end the URI template");
+        }
+        for (var k = 0; k < specs.length; k++) {
+            var spec = specs[k];
+            var explode = spec.endsWith("*");
+            var name = name(spec);
+            var value = valuePattern(op, explode, prefixLength(spec));
+            captured.add(name);
+            switch (op) {
+                case '.', '/' -> regex.append("(?:").append(Pattern.quote(String.valueOf(op))).append(value).append(")?");
+                case ';' -> regex.append("(?:;").append(Pattern.quote(name)).append("(?:=").append(value).append(")?)?");
+                case '#' -> regex.append("(?:").append(k == 0 ? "#" : ",").append(value).append(")?");
+                default -> regex.append(k == 0 ? value : "(?:," + value + ")?");
+            }
+        }
+    }
+
+    private static String valuePattern(char op, boolean explode, int prefix) {
+        var chars = switch (op) {
+            case '+', '#' -> "[^?#,]";
+            case '.' -> explode ? "[^/?#]" : "[^/?#.,]";
+            case '/' -> explode ? "[^?#]" : "[^/?#,]";
+            case ';' -> "[^;/?#,]";
+            default -> "[^/?#,]";
+        };
+        if (op == '+' && explode) {
+            chars = "[^?#]";
+        }
+        return "(" + chars + (prefix > 0 ? "{0," + prefix + "}" : "*") + ")";
+    }
+
+    private static String name(String spec) {
+        var end = spec.length();
+        if (spec.endsWith("*")) {
+            end--;
+        } else if (spec.indexOf(':') >= 0) {
+            end = spec.indexOf(':');
+        }
+        var name = spec.substring(0, end);
+        if (name.isEmpty() || !NAME.matcher(name).replaceAll("").isEmpty()) {
+            throw new IllegalArgumentException("Invalid URI template variable: " + spec);
+        }
+        return name;
+    }
+
+    private static int prefixLength(String spec) {
+        var colon = spec.indexOf(':');
+        if (colon < 0) {
+            return 0;
+        }
+        try {
+            var length = Integer.parseInt(spec.substring(colon + 1));
+            if (length <= 0 || length >= 10_000) {
+                throw new IllegalArgumentException("Invalid URI template prefix: " + spec);
+            }
+            return length;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid URI template prefix: " + spec, e);
+        }
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.amannmalik.mcp.core;
+
+import com.amannmalik.mcp.spi.ResourceTemplate;
+import com.amannmalik.mcp.util.PlatformLog;
+
+import java.lang.System.Logger;
+import java.net.URI;
+import java.util.*;
+
+/// Resource templates indexed by a trie over the `/`-separated segments of their
+/// literal prefix. A lookup walks the URI's segments once and only tests the
+/// templates registered along that path, deepest (most specific) first, so the cost
+/// depends on the URI's length rather than on the number of templates.
+final class UriTemplateIndex {
+    static final UriTemplateIndex EMPTY = new UriTemplateIndex(new Node());
+    private static final Logger LOG = PlatformLog.get(UriTemplateIndex.class);
+
+    private final Node root;
+
+    private UriTemplateIndex(Node root) {
+        this.root = root;
+    }
+
+    /// Templates that fail to compile are skipped with a warning.
+    static UriTemplateIndex of(Collection<ResourceTemplate> templates) {
+        if (templates.isEmpty()) {
+            return EMPTY;
+        }
+        var root = new Node();
+        for (var template : templates) {
+            UriTemplate compiled;
+            try {
+                compiled = UriTemplate.compile(template.uriTemplate());
+            } catch (IllegalArgumentException e) {
+                LOG.log(Logger.Level.WARNING, "Ignoring resource template " + template.uriTemplate() + ": " + e.getMessage());
+                continue;
+            }
+            var node = root;
+            for (var segment : literalSegments(compiled.literalPrefix())) {
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+            }
+            node.templates.add(new Entry(template, compiled));
+        }
+        return new UriTemplateIndex(root);
+    }
+
+    Optional<Match> match(URI uri) {
+        var raw = uri.toString();
+        var path = new ArrayDeque<Node>();
+        var node = root;
+        var start = 0;
+        while (node != null) {
+            path.push(node);
+            var slash = raw.indexOf('/', start);
+            if (slash < 0) {
+                break;
+            }
+            node = node.children.get(raw.substring(start, slash));
+            start = slash + 1;
+        }
+        for (var visited : path) {
+            for (var entry : visited.templates) {
+                var variables = entry.compiled().match(raw);
+                if (variables.isPresent()) {
+                    return Optional.of(new Match(entry.template(), variables.get()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /// Complete segments of `prefix`; the text after its last `/` may be joined to an
+    /// expression, so it is not indexed.
+    private static List<String> literalSegments(String prefix) {
+        var segments = new ArrayList<String>();
+        var start = 0;
+        for (var slash = prefix.indexOf('/'); slash >= 0; slash = prefix.indexOf('/', start)) {
+            segments.add(prefix.substring(start, slash));
+            start = slash + 1;
+        }
+        return segments;
+    }
+
+    record Match(ResourceTemplate template, Map<String, String> variables) {
+    }
+
+    private record Entry(ResourceTemplate template, UriTemplate compiled) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Entry> templates = new ArrayList<>();
+    }
+}
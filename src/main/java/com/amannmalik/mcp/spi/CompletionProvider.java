@@ -19,5 +19,6 @@ public non-sealed interface CompletionProvider extends ExecutingProvider<Ref, Co
         throw new IllegalArgumentException("invalid ref");
     }
 
+    /// Interrupted when the client cancels the request.
     CompleteResult complete(CompleteRequest request) throws InterruptedException;
 }
@@ -2,6 +2,8 @@ package com.amannmalik.mcp.spi;
 
 import com.amannmalik.mcp.core.CursorCodec;
 
+import java.util.Optional;
+
 public sealed interface Cursor permits Cursor.Start, Cursor.End, Cursor.Token {
     static Cursor of(String value) {
         return value == null ? End.INSTANCE : new Token(value);
@@ -15,6 +17,17 @@ public sealed interface Cursor permits Cursor.Start, Cursor.End, Cursor.Token {
         return CursorCodec.index(cursor);
     }
 
+    /// Keyset cursor resuming after `key` in catalogue `version`.
+    static Cursor.Token afterKey(String key, long version) {
+        return CursorCodec.afterKey(key, version);
+    }
+
+    /// Last key served before `cursor`, empty at the start; rejects cursors from any
+    /// other catalogue version or not signed with this server's key.
+    static Optional<String> lastKey(Cursor cursor, long version) {
+        return CursorCodec.lastKey(cursor, version);
+    }
+
     static String requireValid(String token) {
         return CursorCodec.requireValid(token);
     }
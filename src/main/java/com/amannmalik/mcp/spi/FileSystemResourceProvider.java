@@ -0,0 +1,539 @@
+package com.amannmalik.mcp.spi;
+
+import com.amannmalik.mcp.util.PlatformLog;
+import com.amannmalik.mcp.util.TimingWheel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/// Serves the regular files beneath a set of root directories as `file:` resources.
+///
+/// The catalogue is an index built on first use and kept current from
+/// `WatchService` events, so `resources/list` never rescans the tree and pages with
+/// keyset cursors by URI. Files up to [#CACHE_THRESHOLD] bytes are kept in a
+/// bounded LRU cache; larger files are read afresh on every request. Change events
+/// are debounced per path before subscribers and list-changed listeners are
+/// notified.
+///
+/// Opt-in: the server falls back to it only when no other [ResourceProvider] is
+/// registered and the [#ROOTS_PROPERTY] system property names at least one root
+/// directory, as a [File#pathSeparator]-separated list. Otherwise a missing provider
+/// is still an error.
+public final class FileSystemResourceProvider implements ResourceProvider {
+    public static final String ROOTS_PROPERTY = "com.amannmalik.mcp.resources.roots";
+    public static final long CACHE_THRESHOLD = 256 * 1024;
+    private static final long CACHE_BYTES = 16 * 1024 * 1024;
+    private static final Duration DEBOUNCE = Duration.ofMillis(100);
+    private static final Logger LOG = PlatformLog.get(FileSystemResourceProvider.class);
+
+    private final List<Path> roots;
+    private volatile ConcurrentSkipListMap<String, Resource> index = new ConcurrentSkipListMap<>();
+    private final Map<URI, CopyOnWriteArrayList<Consumer<ResourceUpdate>>> subscribers = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Runnable> listChangedListeners = new CopyOnWriteArrayList<>();
+    private final ContentCache cache = new ContentCache(CACHE_BYTES);
+    private final Map<WatchKey, Path> watched = new ConcurrentHashMap<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final Set<Path> pending = new HashSet<>();
+    private final WatchService watcher;
+    private final ReentrantLock startLock = new ReentrantLock();
+    private volatile boolean started;
+    private boolean closed;
+    private volatile long generation;
+    private boolean listChangePending;
+    private TimingWheel.Timeout flush;
+
+    public FileSystemResourceProvider(Collection<Path> roots) {
+        Objects.requireNonNull(roots, "roots");
+        var resolved = new ArrayList<Path>(roots.size());
+        for (var root : roots) {
+            try {
+                resolved.add(root.toRealPath());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid resource root: " + root, e);
+            }
+        }
+        this.roots = List.copyOf(resolved);
+        if (this.roots.isEmpty()) {
+            this.watcher = null;
+            return;
+        }
+        try {
+            this.watcher = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to watch resource roots", e);
+        }
+    }
+
+    @Override
+    public ResourceBlock read(URI uri) {
+        var path = resolve(uri).orElse(null);
+        if (path == null) {
+            return null;
+        }
+        try {
+            var attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return null;
+            }
+            if (attrs.size() > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Resource too large: " + uri);
+            }
+            var mimeType = mimeType(path);
+            if (attrs.size() > CACHE_THRESHOLD) {
+                return block(uri, mimeType, Files.readAllBytes(path));
+            }
+            var bytes = cache.get(path, attrs);
+            if (bytes == null) {
+                bytes = Files.readAllBytes(path);
+                cache.put(path, attrs, bytes);
+            }
+            return block(uri, mimeType, bytes);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + uri, e);
+        }
+    }
+
+    /// Size, modification time and file key, which change whenever the content does.
+    @Override
+    public Optional<String> version(URI uri) {
+        var path = resolve(uri).orElse(null);
+        if (path == null) {
+            return Optional.empty();
+        }
+        try {
+            var attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(attrs.size() + ":" + attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS) + ":" + attrs.fileKey());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(URI uri) {
+        Objects.requireNonNull(uri, "uri");
+        start();
+        return key(uri).map(index::get);
+    }
+
+    @Override
+    public Pagination.Page<Resource> list(Cursor cursor) {
+        return list(cursor, Pagination.DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public Pagination.Page<Resource> list(Cursor cursor, int pageSize) {
+        start();
+        return Pagination.page(index, generation, cursor == null ? Cursor.Start.INSTANCE : cursor, pageSize);
+    }
+
+    @Override
+    public Pagination.Page<ResourceTemplate> listTemplates(Cursor cursor) {
+        return Pagination.page(List.of(), cursor == null ? Cursor.Start.INSTANCE : cursor, Pagination.DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public Optional<Resource> find(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name required");
+        }
+        start();
+        return index.values().stream().filter(r -> r.name().equals(name)).findFirst();
+    }
+
+    @Override
+    public Closeable subscribe(URI uri, Consumer<ResourceUpdate> listener) {
+        Objects.requireNonNull(uri, "uri");
+        Objects.requireNonNull(listener, "listener");
+        var key = URI.create(key(uri).orElseThrow(() -> new IllegalArgumentException("Not a file resource: " + uri)));
+        start();
+        subscribers.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.computeIfPresent(key, (k, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    @Override
+    public boolean supportsSubscribe() {
+        return true;
+    }
+
+    @Override
+    public Closeable onListChanged(Runnable listener) {
+        Objects.requireNonNull(listener, "listener");
+        start();
+        listChangedListeners.add(listener);
+        return () -> listChangedListeners.remove(listener);
+    }
+
+    @Override
+    public boolean supportsListChanged() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        startLock.lock();
+        try {
+            closed = true;
+        } finally {
+            startLock.unlock();
+        }
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                LOG.log(Logger.Level.WARNING, "Failed to close resource watcher", e);
+            }
+        }
+        subscribers.clear();
+        listChangedListeners.clear();
+        cache.clear();
+    }
+
+    /// Indexes the roots and starts the watch thread on first use rather than in the
+    /// constructor, so the thread never observes a partially constructed provider.
+    private void start() {
+        if (started || watcher == null) {
+            return;
+        }
+        startLock.lock();
+        try {
+            if (started || closed) {
+                return;
+            }
+            roots.forEach(root -> scan(root, index));
+            Thread.ofPlatform().daemon().name("mcp-resource-watch").start(this::watch);
+            started = true;
+        } finally {
+            startLock.unlock();
+        }
+    }
+
+    /// A provider over the roots named by [#ROOTS_PROPERTY], or empty when it names none.
+    public static Optional<FileSystemResourceProvider> fromSystemProperty() {
+        var roots = Arrays.stream(System.getProperty(ROOTS_PROPERTY, "").split(File.pathSeparator))
+                .filter(s -> !s.isBlank())
+                .map(Path::of)
+                .toList();
+        return roots.isEmpty() ? Optional.empty() : Optional.of(new FileSystemResourceProvider(roots));
+    }
+
+    /// Resolves `uri` to a regular file within a root, following links only when
+    /// their target stays inside that root.
+    private Optional<Path> resolve(URI uri) {
+        Objects.requireNonNull(uri, "uri");
+        if (!"file".equalsIgnoreCase(uri.getScheme())) {
+            return Optional.empty();
+        }
+        try {
+            var real = Paths.get(uri).toRealPath();
+            return roots.stream().anyMatch(real::startsWith) ? Optional.of(real) : Optional.empty();
+        } catch (IOException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> key(URI uri) {
+        if (!"file".equalsIgnoreCase(uri.getScheme())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(key(Paths.get(uri).toAbsolutePath().normalize()));
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String key(Path path) {
+        return path.toUri().toString();
+    }
+
+    private void scan(Path dir, Map<String, Resource> into) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                    watched.put(d.register(watcher,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY), d);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        into.put(key(file), resource(file, attrs));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOG.log(Logger.Level.DEBUG, "Skipping unreadable path " + file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.log(Logger.Level.WARNING, "Failed to index " + dir, e);
+        }
+    }
+
+    private Resource resource(Path file, BasicFileAttributes attrs) {
+        var root = roots.stream().filter(file::startsWith).findFirst().orElse(file.getParent());
+        var name = root.relativize(file).toString().replace(File.separatorChar, '/');
+        return new Resource(
+                file.toUri(),
+                name,
+                String.valueOf(file.getFileName()),
+                null,
+                mimeType(file),
+                attrs.size(),
+                new Annotations(Set.of(), null, attrs.lastModifiedTime().toInstant()),
+                null);
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+            var dir = watched.get(key);
+            for (var event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    rescan();
+                } else if (dir != null && event.context() instanceof Path name) {
+                    apply(dir.resolve(name), event.kind() == StandardWatchEventKinds.ENTRY_CREATE);
+                }
+            }
+            if (!key.reset()) {
+                watched.remove(key);
+            }
+        }
+    }
+
+    /// Brings the index entry for `path` in line with the filesystem. New directories
+    /// are walked and watched; changes to existing ones arrive through their own key.
+    /// The list counts as changed whenever a listed entry is added, removed or has
+    /// its size or modification time change.
+    private void apply(Path path, boolean created) {
+        var key = key(path);
+        boolean listed;
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            attrs = null;
+        }
+        if (attrs != null && attrs.isDirectory()) {
+            if (!created) {
+                return;
+            }
+            var before = index.size();
+            scan(path, index);
+            listed = index.size() != before;
+        } else if (attrs != null && attrs.isRegularFile()) {
+            var resource = resource(path, attrs);
+            listed = !resource.equals(index.put(key, resource));
+        } else {
+            listed = index.remove(key) != null;
+            var below = index.subMap(key + "/", key + "0");
+            listed |= !below.isEmpty();
+            below.clear();
+        }
+        cache.invalidate(path);
+        changed(path, listed);
+    }
+
+    /// Re-walks every root into a fresh index and swaps it in, so concurrent readers
+    /// see either the old catalogue or the new one, never a partial one.
+    private void rescan() {
+        var fresh = new ConcurrentSkipListMap<String, Resource>();
+        roots.forEach(root -> scan(root, fresh));
+        var listed = !fresh.equals(index);
+        generation++;
+        index = fresh;
+        cache.clear();
+        changed(null, listed);
+        subscribers.keySet().forEach(uri -> changed(Paths.get(uri), listed));
+    }
+
+    /// Queues an update for `path`, if any, and a list change if `listed`.
+    private void changed(Path path, boolean listed) {
+        pendingLock.lock();
+        try {
+            if (path != null) {
+                pending.add(path);
+            }
+            listChangePending |= listed;
+            if (flush == null) {
+                flush = TimingWheel.shared().schedule(DEBOUNCE, this::flush);
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void flush() {
+        Set<Path> paths;
+        boolean listChanged;
+        pendingLock.lock();
+        try {
+            paths = Set.copyOf(pending);
+            pending.clear();
+            listChanged = listChangePending;
+            listChangePending = false;
+            flush = null;
+        } finally {
+            pendingLock.unlock();
+        }
+        for (var path : paths) {
+            var uri = path.toUri();
+            var listeners = subscribers.get(uri);
+            if (listeners == null) {
+                continue;
+            }
+            var title = Optional.ofNullable(index.get(key(path))).map(Resource::title).orElse(null);
+            var update = new ResourceUpdate(uri, title);
+            listeners.forEach(l -> l.accept(update));
+        }
+        if (listChanged) {
+            listChangedListeners.forEach(Runnable::run);
+        }
+    }
+
+    private static String mimeType(Path file) {
+        var type = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        return type == null ? "application/octet-stream" : type;
+    }
+
+    /// Text for textual types that decode as UTF-8 without control characters,
+    /// otherwise the raw bytes.
+    private static ResourceBlock block(URI uri, String mimeType, byte[] content) {
+        if (isText(mimeType)) {
+            try {
+                var text = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(content))
+                        .toString();
+                if (text.chars().noneMatch(c -> c < 0x20 && c != '\n' && c != '\r' && c != '\t')) {
+                    return new ResourceBlock.Text(uri, mimeType, text, null);
+                }
+            } catch (CharacterCodingException ignored) {
+                // served as binary below
+            }
+        }
+        return new ResourceBlock.Binary(uri, mimeType, content, null);
+    }
+
+    private static boolean isText(String mimeType) {
+        return mimeType.startsWith("text/")
+                || mimeType.endsWith("json")
+                || mimeType.endsWith("xml")
+                || mimeType.endsWith("javascript");
+    }
+
+    /// Small-file contents validated against size and modification time, evicted
+    /// least-recently-used beyond the byte budget.
+    private static final class ContentCache {
+        private final long maxBytes;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        ContentCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        byte[] get(Path path, BasicFileAttributes attrs) {
+            lock.lock();
+            try {
+                var entry = entries.get(path);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.size() != attrs.size() || !entry.modified().equals(attrs.lastModifiedTime())) {
+                    remove(path);
+                    return null;
+                }
+                return entry.content();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(Path path, BasicFileAttributes attrs, byte[] content) {
+            lock.lock();
+            try {
+                remove(path);
+                entries.put(path, new Entry(content, attrs.size(), attrs.lastModifiedTime()));
+                bytes += content.length;
+                var it = entries.values().iterator();
+                while (bytes > maxBytes && it.hasNext()) {
+                    bytes -= it.next().content().length;
+                    it.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(Path path) {
+            lock.lock();
+            try {
+                remove(path);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+                bytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Path path) {
+            var previous = entries.remove(path);
+            if (previous != null) {
+                bytes -= previous.content().length;
+            }
+        }
+
+        private record Entry(byte[] content, long size, FileTime modified) {
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.amannmalik.mcp.spi;
+
+import jakarta.json.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/// Wire encoding used by transports when turning framed bytes into `JsonObject`
+/// trees and back. Register an implementation as a JPMS service to replace the
+/// default jakarta.json engine; malformed input is reported as
+/// `jakarta.json.stream.JsonParsingException`.
+public interface JsonEngine {
+    JsonObject read(String text);
+
+    JsonObject read(InputStream in) throws IOException;
+
+    default JsonObject read(byte[] utf8) {
+        return read(new String(utf8, StandardCharsets.UTF_8));
+    }
+
+    String write(JsonObject value);
+
+    default byte[] writeBytes(JsonObject value) {
+        return write(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
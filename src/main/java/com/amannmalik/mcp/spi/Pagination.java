@@ -4,7 +4,9 @@ import com.amannmalik.mcp.api.McpHostConfiguration;
 import com.amannmalik.mcp.core.CursorCodec;
 import com.amannmalik.mcp.util.ValidationUtil;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableMap;
 
 /// - [Pagination](specification/2025-06-18/server/utilities/pagination.mdx)
 public final class Pagination {
@@ -25,6 +27,25 @@ public final class Pagination {
         return new Page<>(slice, next);
     }
 
+    /// Keyset page over a sorted catalogue: resumes strictly after the key carried by
+    /// `cursor`, so entries added or removed between pages are neither skipped nor
+    /// repeated, and only the page itself is visited. `version` identifies the
+    /// catalogue's ordering; cursors issued under another version are rejected.
+    public static <T> Page<T> page(NavigableMap<String, T> items, long version, Cursor cursor, int size) {
+        var after = Cursor.lastKey(cursor, version);
+        var tail = after.map(k -> items.tailMap(k, false)).orElse(items);
+        var slice = new ArrayList<T>(Math.min(size, 64));
+        String last = null;
+        for (var entry : tail.entrySet()) {
+            if (slice.size() == size) {
+                return new Page<>(slice, Cursor.afterKey(last, version));
+            }
+            slice.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page<>(slice, Cursor.End.INSTANCE);
+    }
+
     public record Page<T>(List<T> items, Cursor nextCursor) {
         public Page {
             items = ValidationUtil.immutableList(items);
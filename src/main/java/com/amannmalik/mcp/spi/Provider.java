@@ -5,6 +5,12 @@ import java.io.Closeable;
 public sealed interface Provider<T> extends Closeable permits NamedProvider, RootsProvider, ExecutingProvider {
     Pagination.Page<T> list(Cursor cursor);
 
+    /// Lists at most `pageSize` items when the client asked for a page size, already
+    /// capped by the server. Providers that page by a fixed size may ignore the hint.
+    default Pagination.Page<T> list(Cursor cursor, int pageSize) {
+        return list(cursor);
+    }
+
     Closeable onListChanged(Runnable listener);
 
     boolean supportsListChanged();
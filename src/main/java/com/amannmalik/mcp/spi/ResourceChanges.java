@@ -0,0 +1,23 @@
+package com.amannmalik.mcp.spi;
+
+import com.amannmalik.mcp.util.ValidationUtil;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+
+/// Difference between the resource catalogue a client last saw and the server's
+/// current one. `version` is the opaque token to ask from next time; a `reset`
+/// carries the whole catalogue in `added` and replaces whatever the client held.
+public record ResourceChanges(String version,
+                              boolean reset,
+                              List<Resource> added,
+                              List<Resource> updated,
+                              List<URI> removed) {
+    public ResourceChanges {
+        Objects.requireNonNull(version, "version");
+        added = ValidationUtil.immutableList(added);
+        updated = ValidationUtil.immutableList(updated);
+        removed = ValidationUtil.immutableList(removed);
+    }
+}
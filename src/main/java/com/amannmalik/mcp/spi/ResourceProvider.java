@@ -2,6 +2,7 @@ package com.amannmalik.mcp.spi;
 
 import java.io.Closeable;
 import java.net.URI;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -10,10 +11,27 @@ import java.util.function.Consumer;
 public non-sealed interface ResourceProvider extends NamedProvider<Resource> {
     ResourceBlock read(URI uri);
 
+    /// Reads a URI that matched `template` rather than a listed resource, with the
+    /// template's variables already extracted. Defaults to [#read(URI)].
+    default ResourceBlock read(URI uri, ResourceTemplate template, Map<String, String> variables) {
+        return read(uri);
+    }
+
+    /// Opaque version of the content at `uri` that changes whenever the content does,
+    /// or empty when it cannot be told without reading. Lets a server answer a
+    /// revalidation without reading the content. Defaults to empty.
+    default Optional<String> version(URI uri) {
+        return Optional.empty();
+    }
+
     Optional<Resource> get(URI uri);
 
     Pagination.Page<ResourceTemplate> listTemplates(Cursor cursor);
 
+    default Pagination.Page<ResourceTemplate> listTemplates(Cursor cursor, int pageSize) {
+        return listTemplates(cursor);
+    }
+
     Closeable subscribe(URI uri, Consumer<ResourceUpdate> listener);
 
     boolean supportsSubscribe();
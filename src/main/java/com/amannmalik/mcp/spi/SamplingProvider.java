@@ -7,6 +7,7 @@ import java.time.Duration;
 /// - [Sampling](specification/2025-06-18/client/sampling.mdx)
 /// - [MCP sampling specification conformance](src/test/resources/com/amannmalik/mcp/mcp_conformance.feature:135-150)
 public non-sealed interface SamplingProvider extends ExecutingProvider<SamplingMessage, CreateMessageResponse> {
+    /// Interrupted when the requester cancels the request.
     CreateMessageResponse createMessage(CreateMessageRequest request, Duration timeoutMillis) throws InterruptedException;
 
     CreateMessageResponse createMessage(CreateMessageRequest request) throws InterruptedException;
@@ -2,11 +2,22 @@ package com.amannmalik.mcp.spi;
 
 import jakarta.json.JsonObject;
 
+import java.time.Duration;
+
 /// - [Tools](specification/2025-06-18/server/tools.mdx)
 /// - [MCP tools specification conformance](src/test/resources/com/amannmalik/mcp/mcp_conformance.feature:38-56)
 public non-sealed interface ToolProvider extends ExecutingProvider<Tool, ToolResult>, NamedProvider<Tool> {
+    /// Runs on a dedicated thread that is interrupted when the client cancels the request.
+    /// This method does not declare `InterruptedException`, so long-running tools should
+    /// poll `Thread.interrupted()` or use interruptible waits and return early.
     ToolResult call(String name, JsonObject arguments);
 
+    /// Like [#call(String, JsonObject)], with `timeout` left of the caller's deadline so a
+    /// tool can bound its own downstream work. Defaults to ignoring it.
+    default ToolResult call(String name, JsonObject arguments, Duration timeout) {
+        return call(name, arguments);
+    }
+
     @Override
     ToolResult execute(String name, JsonObject args);
 }
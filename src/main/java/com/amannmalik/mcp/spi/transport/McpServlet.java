@@ -1,10 +1,11 @@
 package com.amannmalik.mcp.spi.transport;
 
 import com.amannmalik.mcp.api.RequestMethod;
+import com.amannmalik.mcp.codec.JsonEngines;
 import com.amannmalik.mcp.jsonrpc.JsonRpcEnvelope;
+import com.amannmalik.mcp.spi.JsonEngine;
 import com.amannmalik.mcp.spi.Principal;
 import com.amannmalik.mcp.util.PlatformLog;
-import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.stream.JsonParsingException;
 import jakarta.servlet.AsyncContext;
@@ -24,6 +25,7 @@ final class McpServlet extends HttpServlet {
     @Serial
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = PlatformLog.get(McpServlet.class);
+    private static final JsonEngine JSON = JsonEngines.current();
     private transient final StreamableHttpServerTransport transport;
     private final int responseQueueCapacity;
 
@@ -116,8 +118,8 @@ final class McpServlet extends HttpServlet {
     }
 
     private Optional<JsonObject> readJson(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-        try (var reader = Json.createReader(req.getInputStream())) {
-            return Optional.of(reader.readObject());
+        try (var in = req.getInputStream()) {
+            return Optional.of(JSON.read(in));
         } catch (JsonParsingException e) {
             resp.sendError(HttpServletResponse.SC_BAD_REQUEST);
             return Optional.empty();
@@ -185,7 +187,7 @@ final class McpServlet extends HttpServlet {
             resp.setContentType("application/json");
             resp.setCharacterEncoding("UTF-8");
             resp.setHeader(TransportHeaders.PROTOCOL_VERSION, transport.protocolVersion());
-            resp.getWriter().write(response.toString());
+            resp.getOutputStream().write(JSON.writeBytes(response));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
@@ -0,0 +1,61 @@
+package com.amannmalik.mcp.spi.transport;
+
+import com.amannmalik.mcp.api.NotificationMethod;
+import com.amannmalik.mcp.api.RequestMethod;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Incoming message queue with a control lane that is always drained first, so
+/// heartbeats and lifecycle messages are not stuck behind queued data-plane traffic.
+/// Each lane is FIFO. `notifications/cancelled` stays in the data lane: it must not
+/// overtake the queued request it cancels, which would not be registered yet.
+final class PriorityInbox {
+    private static final Set<String> CONTROL = Set.of(
+            RequestMethod.PING.method(),
+            RequestMethod.INITIALIZE.method(),
+            RequestMethod.LOGGING_SET_LEVEL.method(),
+            NotificationMethod.INITIALIZED.method());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<JsonObject> control = new ArrayDeque<>();
+    private final ArrayDeque<JsonObject> data = new ArrayDeque<>();
+
+    static boolean isControl(JsonObject message) {
+        return message.get("method") instanceof JsonString method && CONTROL.contains(method.getString());
+    }
+
+    void add(JsonObject message) {
+        var lane = isControl(message) ? control : data;
+        lock.lock();
+        try {
+            lane.addLast(message);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Returns the next message, or `null` if none arrives within the timeout.
+    JsonObject poll(long timeout, TimeUnit unit) throws InterruptedException {
+        var nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (control.isEmpty() && data.isEmpty()) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return control.isEmpty() ? data.pollFirst() : control.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
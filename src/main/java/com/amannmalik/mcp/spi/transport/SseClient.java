@@ -1,5 +1,7 @@
 package com.amannmalik.mcp.spi.transport;
 
+import com.amannmalik.mcp.codec.JsonEngines;
+import com.amannmalik.mcp.spi.JsonEngine;
 import com.amannmalik.mcp.util.Base64Util;
 import com.amannmalik.mcp.util.PlatformLog;
 import jakarta.json.JsonObject;
@@ -15,6 +17,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public final class SseClient implements Closeable {
     private static final SecureRandom RANDOM = new SecureRandom();
     private static final Logger LOG = PlatformLog.get(SseClient.class);
+    private static final JsonEngine JSON = JsonEngines.current();
     private final String prefix;
     private final long historyLimit;
     private final Deque<SseEvent> history = new ArrayDeque<>();
@@ -145,7 +148,7 @@ public final class SseClient implements Closeable {
 
     private void writeEvent(PrintWriter writer, SseEvent event) {
         writer.write("id: " + prefix + '-' + event.id() + "\n");
-        writer.write("data: " + event.msg() + "\n\n");
+        writer.write("data: " + JSON.write(event.msg()) + "\n\n");
     }
 
     private void handleTransmissionFailure(String message, Exception e) {
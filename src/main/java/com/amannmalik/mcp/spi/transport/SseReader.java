@@ -1,7 +1,8 @@
 package com.amannmalik.mcp.spi.transport;
 
+import com.amannmalik.mcp.codec.JsonEngines;
+import com.amannmalik.mcp.spi.JsonEngine;
 import com.amannmalik.mcp.util.PlatformLog;
-import jakarta.json.Json;
 import jakarta.json.JsonObject;
 
 import java.io.*;
@@ -9,19 +10,19 @@ import java.lang.System.Logger;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 final class SseReader implements Runnable {
     private static final Logger LOG = PlatformLog.get(SseReader.class);
+    private static final JsonEngine JSON = JsonEngines.current();
     private final InputStream input;
-    private final BlockingQueue<JsonObject> queue;
+    private final PriorityInbox queue;
     private final Set<SseReader> container;
     private final EventBuffer buffer = new EventBuffer();
     private final AtomicBoolean closed = new AtomicBoolean();
     private String lastEventId;
 
-    SseReader(InputStream input, BlockingQueue<JsonObject> queue, Set<SseReader> container) {
+    SseReader(InputStream input, PriorityInbox queue, Set<SseReader> container) {
         this.input = Objects.requireNonNull(input, "input");
         this.queue = Objects.requireNonNull(queue, "queue");
         this.container = container == null ? Set.of() : container;
@@ -55,16 +56,13 @@ final class SseReader implements Runnable {
 
     private void dispatch(String payload, String eventId) {
         JsonObject message;
-        try (var jr = Json.createReader(new StringReader(payload))) {
-            message = jr.readObject();
+        try {
+            message = JSON.read(payload);
         } catch (Exception e) {
             LOG.log(Logger.Level.WARNING, "Invalid SSE payload", e);
             return;
         }
-        if (!queue.offer(message)) {
-            LOG.log(Logger.Level.WARNING, "Dropping SSE message because queue is full");
-            return;
-        }
+        queue.add(message);
         if (eventId != null) {
             lastEventId = eventId;
         }
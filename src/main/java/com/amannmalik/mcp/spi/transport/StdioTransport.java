@@ -1,8 +1,9 @@
 package com.amannmalik.mcp.spi.transport;
 
 import com.amannmalik.mcp.api.Transport;
+import com.amannmalik.mcp.codec.JsonEngines;
+import com.amannmalik.mcp.spi.JsonEngine;
 import com.amannmalik.mcp.util.*;
-import jakarta.json.Json;
 import jakarta.json.JsonObject;
 
 import java.io.*;
@@ -17,6 +18,7 @@ import java.util.function.Consumer;
 public final class StdioTransport implements Transport {
     private static final Executor READER = command -> Thread.ofVirtual().start(command);
     private static final Logger LOG = PlatformLog.get(StdioTransport.class);
+    private static final JsonEngine JSON = JsonEngines.current();
     private final BufferedReader in;
     private final BufferedWriter out;
     private final ProcessResources resources;
@@ -62,7 +64,7 @@ public final class StdioTransport implements Transport {
 
     @Override
     public void send(JsonObject message) throws IOException {
-        var s = message.toString();
+        var s = JSON.write(message);
         if (s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
             throw new IllegalArgumentException("message contains newline");
         }
@@ -110,9 +112,7 @@ public final class StdioTransport implements Transport {
             resources.checkAlive();
             throw new EOFException();
         }
-        try (var reader = Json.createReader(new StringReader(line))) {
-            return reader.readObject();
-        }
+        return JSON.read(line);
     }
 
     @Override
@@ -2,8 +2,9 @@ package com.amannmalik.mcp.spi.transport;
 
 import com.amannmalik.mcp.api.Protocol;
 import com.amannmalik.mcp.api.Transport;
+import com.amannmalik.mcp.codec.JsonEngines;
+import com.amannmalik.mcp.spi.JsonEngine;
 import com.amannmalik.mcp.util.*;
-import jakarta.json.Json;
 import jakarta.json.JsonObject;
 
 import javax.net.ssl.*;
@@ -26,9 +27,10 @@ import java.util.concurrent.atomic.AtomicReference;
 /// - [Transports](specification/2025-06-18/basic/transports.mdx)
 public final class StreamableHttpClientTransport implements Transport {
     private static final Logger LOG = PlatformLog.get(StreamableHttpClientTransport.class);
+    private static final JsonEngine JSON = JsonEngines.current();
     private final HttpClient client;
     private final URI endpoint;
-    private final BlockingQueue<JsonObject> incoming = new LinkedBlockingQueue<>();
+    private final PriorityInbox incoming = new PriorityInbox();
     private final Set<SseReader> streams = ConcurrentHashMap.newKeySet();
     private final AtomicReference<String> sessionId = new AtomicReference<>();
     private final AtomicReference<String> protocolVersion = new AtomicReference<>(Protocol.LATEST_VERSION);
@@ -186,7 +188,7 @@ public final class StreamableHttpClientTransport implements Transport {
         var request = builder()
                 .header("Accept", "application/json, text/event-stream")
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(message.toString()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeBytes(message)))
                 .build();
         var response = exchange(request);
         AuthorizationUtil.checkUnauthorized(response);
@@ -197,8 +199,8 @@ public final class StreamableHttpClientTransport implements Transport {
             return;
         }
         if (ct.startsWith("application/json")) {
-            try (var reader = Json.createReader(response.body())) {
-                incoming.add(reader.readObject());
+            try (var body = response.body()) {
+                incoming.add(JSON.read(body));
             }
             return;
         }
@@ -34,7 +34,7 @@ public final class StreamableHttpServerTransport implements Transport {
     private final AuthorizationManager authManager;
     private final String canonicalResource;
     private final List<String> authorizationServers;
-    private final BlockingQueue<JsonObject> incoming = new LinkedBlockingQueue<>();
+    private final PriorityInbox incoming = new PriorityInbox();
     private final SseClients clients = new SseClients();
     private final SessionManager sessions;
     private final McpServerConfiguration config;
@@ -241,7 +241,7 @@ public final class StreamableHttpServerTransport implements Transport {
     }
 
     void submitIncoming(JsonObject message) throws InterruptedException {
-        incoming.put(message);
+        incoming.add(message);
     }
 
     BlockingQueue<JsonObject> registerResponseQueue(RequestId id, int capacity) {
@@ -414,9 +414,7 @@ public final class StreamableHttpServerTransport implements Transport {
     }
 
     private void signalClosure() {
-        if (!incoming.offer(CLOSE_SIGNAL)) {
-            throw new IllegalStateException("incoming queue full");
-        }
+        incoming.add(CLOSE_SIGNAL);
     }
 
     private record ServerBindings(Server server, ServerConnector http, ServerConnector https) {
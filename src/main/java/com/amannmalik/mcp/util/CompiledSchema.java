@@ -0,0 +1,700 @@
+package com.amannmalik.mcp.util;
+
+import jakarta.json.*;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/// Immutable validator tree compiled from a JSON Schema (draft 2020-12 subset).
+///
+/// Supported keywords: `type`, `enum`, `const`, `minLength`, `maxLength`, `pattern`,
+/// `format`, `minimum`, `maximum`, `exclusiveMinimum`, `exclusiveMaximum`, `items`,
+/// `minItems`, `maxItems`, `uniqueItems`, `properties`, `required`,
+/// `additionalProperties`, `allOf`, `anyOf`, `oneOf`, `not` and local `$ref`.
+/// An object schema that declares `properties` without `additionalProperties`
+/// rejects unknown fields, matching the behaviour tool and elicitation schemas
+/// have always had here. A `$ref` that does not resolve to a location in the same
+/// document, or that leads back to itself without descending into an item or
+/// property, fails compilation with an `IllegalArgumentException`.
+public final class CompiledSchema {
+    private static final Pattern EMAIL = Pattern.compile("^[^@]+@[^@]+\\.[^@]+$");
+    private static final int MASK_BITS = Long.SIZE;
+
+    private final Node root;
+
+    private CompiledSchema(Node root) {
+        this.root = root;
+    }
+
+    static CompiledSchema compile(JsonObject schema) {
+        var compiler = new Compiler(schema);
+        var root = compiler.node(schema);
+        compiler.requireAcyclic();
+        return new CompiledSchema(root);
+    }
+
+    /// Stops at the first violation and reports it as an `IllegalArgumentException`.
+    public void validate(JsonValue value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value required");
+        }
+        var errors = new Errors(false, false);
+        if (!root.check(value, "", errors)) {
+            throw new IllegalArgumentException(errors.first());
+        }
+    }
+
+    /// Every violation found in `value`; empty when it conforms.
+    public List<String> errors(JsonValue value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value required");
+        }
+        var errors = new Errors(true, false);
+        root.check(value, "", errors);
+        return errors.messages();
+    }
+
+    public boolean matches(JsonValue value) {
+        return value != null && root.check(value, "", new Errors(false, true));
+    }
+
+    private static String label(String field) {
+        return field.isEmpty() ? "value" : field;
+    }
+
+    private static String child(String field, String name) {
+        return field.isEmpty() ? name : field + "." + name;
+    }
+
+    private enum SchemaType {
+        STRING("STRING"),
+        NUMBER("NUMBER"),
+        INTEGER("NUMBER"),
+        BOOLEAN("TRUE or FALSE"),
+        OBJECT("OBJECT"),
+        ARRAY("ARRAY"),
+        NULL("NULL");
+
+        private final String label;
+
+        SchemaType(String label) {
+            this.label = label;
+        }
+
+        static Optional<SchemaType> from(String name) {
+            return switch (name) {
+                case "string" -> Optional.of(STRING);
+                case "number" -> Optional.of(NUMBER);
+                case "integer" -> Optional.of(INTEGER);
+                case "boolean" -> Optional.of(BOOLEAN);
+                case "object" -> Optional.of(OBJECT);
+                case "array" -> Optional.of(ARRAY);
+                case "null" -> Optional.of(NULL);
+                default -> Optional.empty();
+            };
+        }
+
+        boolean matches(JsonValue value) {
+            return switch (this) {
+                case STRING -> value.getValueType() == JsonValue.ValueType.STRING;
+                case NUMBER -> value.getValueType() == JsonValue.ValueType.NUMBER;
+                case INTEGER -> value instanceof JsonNumber n && n.isIntegral();
+                case BOOLEAN -> value.getValueType() == JsonValue.ValueType.TRUE
+                        || value.getValueType() == JsonValue.ValueType.FALSE;
+                case OBJECT -> value.getValueType() == JsonValue.ValueType.OBJECT;
+                case ARRAY -> value.getValueType() == JsonValue.ValueType.ARRAY;
+                case NULL -> value.getValueType() == JsonValue.ValueType.NULL;
+            };
+        }
+    }
+
+    private sealed interface Node permits Always, Checks, TypeCheck, EnumCheck, ConstCheck, StringCheck,
+            NumericCheck, ArrayCheck, ObjectCheck, AllOf, AnyOf, OneOf, Not, Ref {
+        boolean check(JsonValue value, String field, Errors errors);
+    }
+
+    /// Collects violations. In fail-fast mode nodes return as soon as one is reported;
+    /// quiet mode records nothing and is used to probe `anyOf`/`oneOf`/`not` branches.
+    private static final class Errors {
+        private final boolean collect;
+        private final boolean quiet;
+        private List<String> messages;
+
+        Errors(boolean collect, boolean quiet) {
+            this.collect = collect;
+            this.quiet = quiet;
+        }
+
+        boolean fail(String message) {
+            if (!quiet) {
+                if (messages == null) {
+                    messages = new ArrayList<>();
+                }
+                messages.add(message);
+            }
+            return false;
+        }
+
+        boolean stop() {
+            return !collect;
+        }
+
+        String first() {
+            return messages == null ? "Invalid value" : messages.getFirst();
+        }
+
+        List<String> messages() {
+            return messages == null ? List.of() : List.copyOf(messages);
+        }
+
+        Errors probe() {
+            return quiet ? this : new Errors(false, true);
+        }
+    }
+
+    private record Always(boolean result) implements Node {
+        static final Always TRUE = new Always(true);
+        static final Always FALSE = new Always(false);
+
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            return result || errors.fail("Value not allowed for " + label(field));
+        }
+    }
+
+    private record Checks(Node[] checks) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            var ok = true;
+            for (var c : checks) {
+                if (!c.check(value, field, errors)) {
+                    ok = false;
+                    if (errors.stop()) {
+                        return false;
+                    }
+                }
+            }
+            return ok;
+        }
+    }
+
+    private record TypeCheck(Set<SchemaType> types) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            for (var t : types) {
+                if (t.matches(value)) {
+                    return true;
+                }
+            }
+            if (types.contains(SchemaType.INTEGER) && value.getValueType() == JsonValue.ValueType.NUMBER) {
+                return errors.fail("Expected integer for " + label(field));
+            }
+            var names = new StringJoiner(" or ");
+            for (var t : types) {
+                names.add(t.label);
+            }
+            return errors.fail("Expected " + names + " for " + label(field));
+        }
+    }
+
+    private record EnumCheck(Set<JsonValue> allowed) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            return allowed.contains(value) || errors.fail("enum violation for " + label(field));
+        }
+    }
+
+    private record ConstCheck(JsonValue expected) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            return expected.equals(value) || errors.fail("const violation for " + label(field));
+        }
+    }
+
+    private record StringCheck(int minLength, int maxLength, Pattern pattern, String format) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            if (!(value instanceof JsonString js)) {
+                return true;
+            }
+            var str = js.getString();
+            var ok = true;
+            if (minLength >= 0 && str.codePointCount(0, str.length()) < minLength) {
+                ok = errors.fail("minLength violated for " + label(field));
+                if (errors.stop()) {
+                    return false;
+                }
+            }
+            if (maxLength >= 0 && str.codePointCount(0, str.length()) > maxLength) {
+                ok = errors.fail("maxLength violated for " + label(field));
+                if (errors.stop()) {
+                    return false;
+                }
+            }
+            if (pattern != null && !pattern.matcher(str).find()) {
+                ok = errors.fail("pattern violated for " + label(field));
+                if (errors.stop()) {
+                    return false;
+                }
+            }
+            if (format != null && !matchesFormat(str)) {
+                ok = errors.fail("Invalid " + format + " for " + label(field));
+            }
+            return ok;
+        }
+
+        private boolean matchesFormat(String str) {
+            try {
+                return switch (format) {
+                    case "email" -> EMAIL.matcher(str).matches();
+                    case "uri" -> !URI.create(str).toString().isEmpty();
+                    case "date" -> LocalDate.parse(str) != null;
+                    case "date-time" -> OffsetDateTime.parse(str) != null;
+                    default -> true;
+                };
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+    }
+
+    private record NumericCheck(BigDecimal minimum,
+                                BigDecimal maximum,
+                                BigDecimal exclusiveMinimum,
+                                BigDecimal exclusiveMaximum) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            if (!(value instanceof JsonNumber jn)) {
+                return true;
+            }
+            var num = jn.bigDecimalValue();
+            if (minimum != null && num.compareTo(minimum) < 0) {
+                return errors.fail("minimum violated for " + label(field));
+            }
+            if (maximum != null && num.compareTo(maximum) > 0) {
+                return errors.fail("maximum violated for " + label(field));
+            }
+            if (exclusiveMinimum != null && num.compareTo(exclusiveMinimum) <= 0) {
+                return errors.fail("exclusiveMinimum violated for " + label(field));
+            }
+            if (exclusiveMaximum != null && num.compareTo(exclusiveMaximum) >= 0) {
+                return errors.fail("exclusiveMaximum violated for " + label(field));
+            }
+            return true;
+        }
+    }
+
+    private record ArrayCheck(Node items, int minItems, int maxItems, boolean uniqueItems) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            if (!(value instanceof JsonArray array)) {
+                return true;
+            }
+            if (minItems >= 0 && array.size() < minItems) {
+                return errors.fail("minItems violated for " + label(field));
+            }
+            if (maxItems >= 0 && array.size() > maxItems) {
+                return errors.fail("maxItems violated for " + label(field));
+            }
+            var ok = true;
+            if (uniqueItems && new HashSet<>(array).size() != array.size()) {
+                ok = errors.fail("uniqueItems violated for " + label(field));
+                if (errors.stop()) {
+                    return false;
+                }
+            }
+            if (items != null) {
+                for (var i = 0; i < array.size(); i++) {
+                    if (!items.check(array.get(i), label(field) + "[" + i + "]", errors)) {
+                        ok = false;
+                        if (errors.stop()) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return ok;
+        }
+    }
+
+    /// `additional` is null when unknown fields are allowed without further checks.
+    private record ObjectCheck(String[] names,
+                               Node[] nodes,
+                               Map<String, Integer> index,
+                               long requiredMask,
+                               String[] unindexedRequired,
+                               Node additional) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            if (!(value instanceof JsonObject obj)) {
+                return true;
+            }
+            var ok = true;
+            var seen = 0L;
+            for (var e : obj.entrySet()) {
+                var key = e.getKey();
+                var i = index.get(key);
+                boolean valid;
+                if (i != null) {
+                    if (i < MASK_BITS) {
+                        seen |= 1L << i;
+                    }
+                    valid = nodes[i].check(e.getValue(), child(field, key), errors);
+                } else if (additional == Always.FALSE) {
+                    valid = errors.fail("Unexpected field: " + child(field, key));
+                } else {
+                    valid = additional == null || additional.check(e.getValue(), child(field, key), errors);
+                }
+                if (!valid) {
+                    ok = false;
+                    if (errors.stop()) {
+                        return false;
+                    }
+                }
+            }
+            for (var missing = requiredMask & ~seen; missing != 0; missing &= missing - 1) {
+                ok = errors.fail("Missing required field: " + child(field, names[Long.numberOfTrailingZeros(missing)]));
+                if (errors.stop()) {
+                    return false;
+                }
+            }
+            for (var name : unindexedRequired) {
+                if (!obj.containsKey(name)) {
+                    ok = errors.fail("Missing required field: " + child(field, name));
+                    if (errors.stop()) {
+                        return false;
+                    }
+                }
+            }
+            return ok;
+        }
+    }
+
+    private record AllOf(Node[] branches) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            var ok = true;
+            for (var b : branches) {
+                if (!b.check(value, field, errors)) {
+                    ok = false;
+                    if (errors.stop()) {
+                        return false;
+                    }
+                }
+            }
+            return ok;
+        }
+    }
+
+    private record AnyOf(Node[] branches) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            var probe = errors.probe();
+            for (var b : branches) {
+                if (b.check(value, field, probe)) {
+                    return true;
+                }
+            }
+            return errors.fail("anyOf violated for " + label(field));
+        }
+    }
+
+    private record OneOf(Node[] branches) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            var probe = errors.probe();
+            var matched = 0;
+            for (var b : branches) {
+                if (b.check(value, field, probe) && ++matched > 1) {
+                    break;
+                }
+            }
+            return matched == 1 || errors.fail("oneOf violated for " + label(field));
+        }
+    }
+
+    private record Not(Node branch) implements Node {
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            return !branch.check(value, field, errors.probe()) || errors.fail("not violated for " + label(field));
+        }
+    }
+
+    /// Resolved lazily so recursive references compile to a cycle rather than recursing.
+    private static final class Ref implements Node {
+        private Node target;
+
+        @Override
+        public boolean check(JsonValue value, String field, Errors errors) {
+            return target.check(value, field, errors);
+        }
+    }
+
+    private static final class Compiler {
+        private final JsonObject root;
+        private final Map<String, Ref> refs = new HashMap<>();
+        /// References each reference applies to the same instance; a cycle among them
+        /// would be followed forever without consuming input.
+        private final Map<String, Set<String>> inPlace = new HashMap<>();
+        private String owner;
+
+        Compiler(JsonObject root) {
+            this.root = root;
+        }
+
+        Node node(JsonValue schema) {
+            if (schema instanceof JsonObject obj) {
+                return node(obj);
+            }
+            return schema != null && schema.getValueType() == JsonValue.ValueType.FALSE ? Always.FALSE : Always.TRUE;
+        }
+
+        Node node(JsonObject schema) {
+            var checks = new ArrayList<Node>();
+            if (schema.get("$ref") instanceof JsonString ref) {
+                checks.add(ref(ref.getString()));
+            }
+            types(schema.get("type")).ifPresent(checks::add);
+            if (schema.get("const") instanceof JsonValue c) {
+                checks.add(new ConstCheck(c));
+            }
+            if (schema.get("enum") instanceof JsonArray values) {
+                checks.add(new EnumCheck(Set.copyOf(values)));
+            }
+            stringCheck(schema).ifPresent(checks::add);
+            numericCheck(schema).ifPresent(checks::add);
+            arrayCheck(schema).ifPresent(checks::add);
+            objectCheck(schema).ifPresent(checks::add);
+            if (schema.get("allOf") instanceof JsonArray all) {
+                checks.add(new AllOf(nodes(all)));
+            }
+            if (schema.get("anyOf") instanceof JsonArray any) {
+                checks.add(new AnyOf(nodes(any)));
+            }
+            if (schema.get("oneOf") instanceof JsonArray one) {
+                checks.add(new OneOf(nodes(one)));
+            }
+            if (schema.containsKey("not")) {
+                checks.add(new Not(node(schema.get("not"))));
+            }
+            return switch (checks.size()) {
+                case 0 -> Always.TRUE;
+                case 1 -> checks.getFirst();
+                default -> new Checks(checks.toArray(Node[]::new));
+            };
+        }
+
+        /// Compiles a schema that applies to an item or property of the current instance.
+        private Node nested(JsonValue schema) {
+            var outer = owner;
+            owner = null;
+            try {
+                return node(schema);
+            } finally {
+                owner = outer;
+            }
+        }
+
+        private Node[] nodes(JsonArray schemas) {
+            var out = new Node[schemas.size()];
+            for (var i = 0; i < out.length; i++) {
+                out[i] = node(schemas.get(i));
+            }
+            return out;
+        }
+
+        private Node ref(String pointer) {
+            if (owner != null) {
+                inPlace.computeIfAbsent(owner, k -> new HashSet<>()).add(pointer);
+            }
+            var existing = refs.get(pointer);
+            if (existing != null) {
+                return existing;
+            }
+            var ref = new Ref();
+            refs.put(pointer, ref);
+            var target = resolve(pointer)
+                    .orElseThrow(() -> new IllegalArgumentException("Unresolvable $ref: " + pointer));
+            var outer = owner;
+            owner = pointer;
+            try {
+                ref.target = node(target);
+            } finally {
+                owner = outer;
+            }
+            return ref;
+        }
+
+        void requireAcyclic() {
+            var done = new HashSet<String>();
+            for (var pointer : inPlace.keySet()) {
+                requireAcyclic(pointer, new HashSet<>(), done);
+            }
+        }
+
+        private void requireAcyclic(String pointer, Set<String> path, Set<String> done) {
+            if (done.contains(pointer)) {
+                return;
+            }
+            if (!path.add(pointer)) {
+                throw new IllegalArgumentException("Circular $ref: " + pointer);
+            }
+            for (var next : inPlace.getOrDefault(pointer, Set.of())) {
+                requireAcyclic(next, path, done);
+            }
+            path.remove(pointer);
+            done.add(pointer);
+        }
+
+        private Optional<JsonValue> resolve(String pointer) {
+            if (!pointer.startsWith("#")) {
+                return Optional.empty();
+            }
+            JsonValue current = root;
+            var path = pointer.substring(1);
+            if (path.isEmpty()) {
+                return Optional.of(current);
+            }
+            if (!path.startsWith("/")) {
+                return Optional.empty();
+            }
+            for (var token : path.substring(1).split("/", -1)) {
+                var key = token.replace("~1", "/").replace("~0", "~");
+                current = switch (current) {
+                    case JsonObject obj -> obj.get(key);
+                    case JsonArray arr -> index(arr, key);
+                    default -> null;
+                };
+                if (current == null) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(current);
+        }
+
+        private static JsonValue index(JsonArray array, String key) {
+            try {
+                var i = Integer.parseInt(key);
+                return i >= 0 && i < array.size() ? array.get(i) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Optional<Node> types(JsonValue type) {
+            var types = EnumSet.noneOf(SchemaType.class);
+            switch (type) {
+                case JsonString js -> SchemaType.from(js.getString()).ifPresent(types::add);
+                case JsonArray arr -> {
+                    for (var v : arr) {
+                        if (v instanceof JsonString js) {
+                            SchemaType.from(js.getString()).ifPresent(types::add);
+                        }
+                    }
+                }
+                case null, default -> {
+                }
+            }
+            return types.isEmpty() ? Optional.empty() : Optional.of(new TypeCheck(Collections.unmodifiableSet(types)));
+        }
+
+        private static Optional<Node> stringCheck(JsonObject schema) {
+            var minLength = intOr(schema, "minLength");
+            var maxLength = intOr(schema, "maxLength");
+            var pattern = pattern(schema.getString("pattern", null));
+            var format = schema.getString("format", null);
+            if (minLength < 0 && maxLength < 0 && pattern == null && format == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new StringCheck(minLength, maxLength, pattern, format));
+        }
+
+        private static Optional<Node> numericCheck(JsonObject schema) {
+            var min = decimal(schema, "minimum");
+            var max = decimal(schema, "maximum");
+            var exMin = decimal(schema, "exclusiveMinimum");
+            var exMax = decimal(schema, "exclusiveMaximum");
+            if (min == null && max == null && exMin == null && exMax == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new NumericCheck(min, max, exMin, exMax));
+        }
+
+        private Optional<Node> arrayCheck(JsonObject schema) {
+            var items = schema.containsKey("items") ? nested(schema.get("items")) : null;
+            var minItems = intOr(schema, "minItems");
+            var maxItems = intOr(schema, "maxItems");
+            var unique = schema.getBoolean("uniqueItems", false);
+            if (items == null && minItems < 0 && maxItems < 0 && !unique) {
+                return Optional.empty();
+            }
+            return Optional.of(new ArrayCheck(items, minItems, maxItems, unique));
+        }
+
+        private Optional<Node> objectCheck(JsonObject schema) {
+            var props = schema.get("properties") instanceof JsonObject p ? p : null;
+            var required = schema.get("required") instanceof JsonArray r ? r : null;
+            var hasAdditional = schema.containsKey("additionalProperties");
+            if (props == null && required == null && !hasAdditional) {
+                return Optional.empty();
+            }
+            var names = props == null ? new String[0] : props.keySet().toArray(String[]::new);
+            var nodes = new Node[names.length];
+            var index = HashMap.<String, Integer>newHashMap(names.length);
+            for (var i = 0; i < names.length; i++) {
+                nodes[i] = nested(props.get(names[i]));
+                index.put(names[i], i);
+            }
+            var requiredMask = 0L;
+            var unindexed = new ArrayList<String>();
+            if (required != null) {
+                for (var v : required) {
+                    if (!(v instanceof JsonString js)) {
+                        continue;
+                    }
+                    var i = index.get(js.getString());
+                    if (i != null && i < MASK_BITS) {
+                        requiredMask |= 1L << i;
+                    } else {
+                        unindexed.add(js.getString());
+                    }
+                }
+            }
+            Node additional;
+            if (hasAdditional) {
+                additional = nested(schema.get("additionalProperties"));
+                if (additional == Always.TRUE) {
+                    additional = null;
+                }
+            } else {
+                additional = props == null ? null : Always.FALSE;
+            }
+            return Optional.of(new ObjectCheck(names, nodes, Map.copyOf(index), requiredMask,
+                    unindexed.toArray(String[]::new), additional));
+        }
+
+        private static int intOr(JsonObject schema, String key) {
+            return schema.get(key) instanceof JsonNumber n ? n.intValue() : -1;
+        }
+
+        private static BigDecimal decimal(JsonObject schema, String key) {
+            return schema.get(key) instanceof JsonNumber n ? n.bigDecimalValue() : null;
+        }
+
+        private static Pattern pattern(String regex) {
+            if (regex == null) {
+                return null;
+            }
+            try {
+                return Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern: " + regex, e);
+            }
+        }
+    }
+}
@@ -21,13 +21,24 @@ public final class ElicitSchemaValidator {
             "type", "properties", "required"
     );
 
+    private static final IdentityCache<JsonObject, Boolean> ACCEPTED = new IdentityCache<>();
+
     private ElicitSchemaValidator() {
     }
 
+    /// Schemas that pass are remembered by identity, so a request reusing a schema
+    /// instance (such as a tool's input schema) is only checked once.
     public static void requireElicitSchema(JsonObject schema) {
         if (schema == null) {
             throw new IllegalArgumentException("schema required");
         }
+        ACCEPTED.computeIfAbsent(schema, s -> {
+            checkElicitSchema(s);
+            return Boolean.TRUE;
+        });
+    }
+
+    private static void checkElicitSchema(JsonObject schema) {
         if (!"object".equals(schema.getString("type", null))) {
             throw new IllegalArgumentException("schema.type must be 'object'");
         }
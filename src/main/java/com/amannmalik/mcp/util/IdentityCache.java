@@ -0,0 +1,58 @@
+package com.amannmalik.mcp.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/// Values derived from a key object, keyed by reference identity and released once
+/// the key becomes unreachable. Values must not retain their key.
+final class IdentityCache<K, V> {
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+    private final ConcurrentHashMap<WeakKey<K>, V> entries = new ConcurrentHashMap<>();
+
+    V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Objects.requireNonNull(key, "key");
+        var cached = entries.get(new WeakKey<>(key, null));
+        if (cached != null) {
+            return cached;
+        }
+        expunge();
+        V value = Objects.requireNonNull(loader.apply(key), "value");
+        var existing = entries.putIfAbsent(new WeakKey<>(key, queue), value);
+        return existing == null ? value : existing;
+    }
+
+    private void expunge() {
+        for (var ref = queue.poll(); ref != null; ref = queue.poll()) {
+            entries.remove(ref);
+        }
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K referent, ReferenceQueue<K> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof WeakKey<?> other)) {
+                return false;
+            }
+            var referent = get();
+            return referent != null && referent == other.get();
+        }
+    }
+}
@@ -1,40 +1,99 @@
 package com.amannmalik.mcp.util;
 
-import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/// Per-key rate limiter implementing the generic cell rate algorithm: each key holds
+/// only its theoretical arrival time in an `AtomicLong`, so permits refill smoothly at
+/// `limit` per window with up to `burst` permits available at once. Keys whose bucket
+/// has fully refilled are evicted at most once per window; an evicted key behaves
+/// exactly like one that was never seen.
 public final class RateLimiter {
-    private final Map<String, Window> windows = new ConcurrentHashMap<>();
-    private final int limit;
-    private final long windowMs;
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<Object, AtomicLong> cells = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong lastSweep;
 
     public RateLimiter(int limit, long windowMs) {
-        this.limit = ValidationUtil.requirePositive(limit, "limit");
-        this.windowMs = ValidationUtil.requirePositive(windowMs, "windowMs");
+        this(limit, windowMs, limit);
+    }
+
+    public RateLimiter(int limit, long windowMs, int burst) {
+        ValidationUtil.requirePositive(limit, "limit");
+        ValidationUtil.requirePositive(windowMs, "windowMs");
+        ValidationUtil.requirePositive(burst, "burst");
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.interval = Math.max(1L, windowNanos / limit);
+        this.tolerance = interval * (burst - 1L);
+        this.lastSweep = new AtomicLong(System.nanoTime());
+    }
+
+    public void requireAllowance(Object key) {
+        if (tryAcquire(key) > 0) {
+            throw new SecurityException("Rate limit exceeded: " + key);
+        }
     }
 
-    public void requireAllowance(String key) {
-        var w = windows.computeIfAbsent(key, k -> new Window());
-        var now = System.currentTimeMillis();
-        w.lock.lock();
-        try {
-            if (now - w.start >= windowMs) {
-                w.start = now;
-                w.count = 0;
+    /// Takes a permit for `key`, returning `0` on success or the nanoseconds until the
+    /// next permit becomes available. Does not allocate once `key` is known.
+    public long tryAcquire(Object key) {
+        Objects.requireNonNull(key, "key");
+        var now = System.nanoTime();
+        sweep(now);
+        while (true) {
+            var cell = cells.get(key);
+            if (cell == null) {
+                cell = cells.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            var tat = cell.get();
+            if (tat == EVICTED) {
+                cells.remove(key, cell);
+                continue;
+            }
+            var base = tat - now > 0 ? tat : now;
+            var wait = base - now - tolerance;
+            if (wait > 0) {
+                return wait;
             }
-            if (w.count >= limit) {
-                throw new SecurityException("Rate limit exceeded: " + key);
+            if (cell.compareAndSet(tat, base + interval)) {
+                return 0L;
             }
-            w.count++;
-        } finally {
-            w.lock.unlock();
         }
     }
 
-    private static final class Window {
-        final ReentrantLock lock = new ReentrantLock();
-        long start;
-        int count;
+    /// Returns a permit taken by [#tryAcquire(Object)] that went unused, for example
+    /// because a later check rejected the request it was taken for.
+    public void refund(Object key) {
+        var cell = cells.get(Objects.requireNonNull(key, "key"));
+        if (cell == null) {
+            return;
+        }
+        while (true) {
+            var tat = cell.get();
+            if (tat == EVICTED || cell.compareAndSet(tat, tat - interval)) {
+                return;
+            }
+        }
+    }
+
+    /// Drops the state for a key that will not be used again.
+    public void forget(Object key) {
+        cells.remove(Objects.requireNonNull(key, "key"));
+    }
+
+    private void sweep(long now) {
+        var last = lastSweep.get();
+        if (now - last < windowNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        cells.values().removeIf(cell -> {
+            var tat = cell.get();
+            return tat != EVICTED && tat - now <= 0 && cell.compareAndSet(tat, EVICTED);
+        });
     }
 }
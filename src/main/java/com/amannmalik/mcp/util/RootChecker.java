@@ -1,58 +1,20 @@
 package com.amannmalik.mcp.util;
 
-import com.amannmalik.mcp.spi.Root;
-
 import java.net.URI;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.*;
-import java.util.stream.Stream;
+import java.util.Objects;
 
 public final class RootChecker {
     private RootChecker() {
     }
 
-    public static boolean withinRoots(URI uri, Collection<? extends Root> roots) {
+    public static boolean withinRoots(URI uri, RootIndex roots) {
         Objects.requireNonNull(roots, "roots");
-        if (uri == null) {
-            return false;
-        }
-        if (!"file".equalsIgnoreCase(uri.getScheme())) {
-            return true;
-        }
-        if (roots.isEmpty()) {
-            return true;
-        }
-        var targetPath = filePath(uri).orElse(null);
-        if (targetPath == null) {
-            return false;
-        }
-        return roots.stream()
-                .map(Root::uri)
-                .flatMap(RootChecker::filePathStream)
-                .anyMatch(targetPath::startsWith);
-    }
-
-    private static Optional<Path> filePath(URI uri) {
-        if (!"file".equalsIgnoreCase(uri.getScheme())) {
-            return Optional.empty();
-        }
-        try {
-            return Optional.of(normalize(Paths.get(uri)));
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+        return roots.contains(uri);
     }
 
-    private static Stream<Path> filePathStream(URI uri) {
-        return filePath(uri).stream();
-    }
-
-    private static Path normalize(Path p) {
-        try {
-            return p.toRealPath();
-        } catch (Exception e) {
-            return p.toAbsolutePath().normalize();
-        }
+    /// Access check for reading or subscribing: follows symlinks before matching.
+    public static boolean canAccess(URI uri, RootIndex roots) {
+        Objects.requireNonNull(roots, "roots");
+        return roots.containsResolved(uri);
     }
 }
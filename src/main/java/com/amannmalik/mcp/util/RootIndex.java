@@ -0,0 +1,121 @@
+package com.amannmalik.mcp.util;
+
+import com.amannmalik.mcp.spi.Root;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+
+/// Prefix trie over the canonical paths of a set of `file:` roots. Roots are
+/// resolved against the filesystem once, when the index is built, and recorded in
+/// both their lexical and real form. [#contains(URI)] normalises the target
+/// lexically and walks the trie without touching the disk, which suits filtering
+/// listings; [#containsResolved(URI)] follows symlinks first and guards access.
+public final class RootIndex {
+    public static final RootIndex EMPTY = new RootIndex(new Node(), true);
+
+    private final Node trie;
+    private final boolean unrestricted;
+
+    private RootIndex(Node trie, boolean unrestricted) {
+        this.trie = trie;
+        this.unrestricted = unrestricted;
+    }
+
+    public static RootIndex of(Collection<? extends Root> roots) {
+        Objects.requireNonNull(roots, "roots");
+        if (roots.isEmpty()) {
+            return EMPTY;
+        }
+        var trie = new Node();
+        for (var root : roots) {
+            lexicalPath(root.uri()).ifPresent(path -> {
+                insert(trie, path);
+                try {
+                    insert(trie, path.toRealPath());
+                } catch (Exception ignored) {
+                    // the lexical form alone still constrains access
+                }
+            });
+        }
+        return new RootIndex(trie, false);
+    }
+
+    /// Non-file URIs are always allowed; so is everything when there are no roots.
+    public boolean contains(URI uri) {
+        if (uri == null) {
+            return false;
+        }
+        if (unrestricted || !"file".equalsIgnoreCase(uri.getScheme())) {
+            return true;
+        }
+        return lexicalPath(uri).map(this::walk).orElse(false);
+    }
+
+    /// Like [#contains(URI)], but judges the target by its real path, so a symlink
+    /// inside a root that points outside every root is rejected. A target that does
+    /// not exist is resolved through its nearest existing ancestor.
+    public boolean containsResolved(URI uri) {
+        if (uri == null) {
+            return false;
+        }
+        if (unrestricted || !"file".equalsIgnoreCase(uri.getScheme())) {
+            return true;
+        }
+        return lexicalPath(uri).flatMap(RootIndex::realPath).map(this::walk).orElse(false);
+    }
+
+    private boolean walk(Path target) {
+        var node = trie.children.get(String.valueOf(target.getRoot()));
+        for (var i = 0; node != null; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == target.getNameCount()) {
+                return false;
+            }
+            node = node.children.get(target.getName(i).toString());
+        }
+        return false;
+    }
+
+    private static void insert(Node trie, Path path) {
+        var node = trie.children.computeIfAbsent(String.valueOf(path.getRoot()), k -> new Node());
+        for (var name : path) {
+            node = node.children.computeIfAbsent(name.toString(), k -> new Node());
+        }
+        node.terminal = true;
+    }
+
+    private static Optional<Path> realPath(Path path) {
+        var existing = path;
+        while (existing != null && !Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+            existing = existing.getParent();
+        }
+        if (existing == null) {
+            return Optional.of(path);
+        }
+        try {
+            return Optional.of(existing.toRealPath().resolve(existing.relativize(path)).normalize());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Path> lexicalPath(URI uri) {
+        if (!"file".equalsIgnoreCase(uri.getScheme())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Paths.get(uri).toAbsolutePath().normalize());
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean terminal;
+    }
+}
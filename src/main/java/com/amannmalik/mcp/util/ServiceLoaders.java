@@ -7,17 +7,16 @@ public final class ServiceLoaders {
     }
 
     public static <T> T loadSingleton(Class<T> type) {
+        return loadOptional(type).orElseThrow(() -> new IllegalStateException("No implementation of " + type.getName() + " is registered as a JPMS service. Provide a module that declares 'provides " + type.getName() + " with ...'."));
+    }
+
+    public static <T> Optional<T> loadOptional(Class<T> type) {
         Objects.requireNonNull(type, "type");
         try {
             var loader = ServiceLoader.load(type);
-            var iterator = loader.iterator();
-            if (!iterator.hasNext()) {
-                throw new IllegalStateException("No implementation of " + type.getName() + " is registered as a JPMS service. Provide a module that declares 'provides " + type.getName() + " with ...'.");
-            }
             T service = null;
             Class<?> implementation = null;
-            while (iterator.hasNext()) {
-                var candidate = iterator.next();
+            for (var candidate : loader) {
                 if (service == null) {
                     service = candidate;
                     implementation = candidate.getClass();
@@ -27,7 +26,7 @@ public final class ServiceLoaders {
                     throw new IllegalStateException("Multiple implementations of " + type.getName() + " detected on the module path. Configure the host to expose only one implementation.");
                 }
             }
-            return service;
+            return Optional.ofNullable(service);
         } catch (ServiceConfigurationError error) {
             throw new IllegalStateException("Failed to load implementation of " + type.getName(), error);
         }
@@ -0,0 +1,134 @@
+package com.amannmalik.mcp.util;
+
+import java.lang.System.Logger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/// Hashed timing wheel for coarse-grained timeouts. Scheduling and cancelling are
+/// O(1); a single daemon thread advances the wheel once per tick and parks while no
+/// timeouts are outstanding. Expired tasks run on their own virtual thread so a slow
+/// task never delays the wheel.
+public final class TimingWheel {
+    private static final Logger LOG = PlatformLog.get(TimingWheel.class);
+
+    private final long tickNanos;
+    private final long start;
+    private final List<ArrayList<Timeout>> buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Thread worker;
+    private long tick;
+
+    public TimingWheel(Duration tick, int wheelSize) {
+        this.tickNanos = ValidationUtil.requirePositive(tick, "tick").toNanos();
+        if (ValidationUtil.requirePositive(wheelSize, "wheelSize") != Integer.highestOneBit(wheelSize)) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+        this.buckets = new ArrayList<>(wheelSize);
+        for (var i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.mask = wheelSize - 1;
+        this.start = System.nanoTime();
+        this.worker = Thread.ofPlatform().daemon().name("mcp-timing-wheel").start(this::run);
+    }
+
+    /// Process-wide wheel with a 10 ms tick.
+    public static TimingWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    public Timeout schedule(Duration delay, Runnable task) {
+        Objects.requireNonNull(delay, "delay");
+        Objects.requireNonNull(task, "task");
+        var timeout = new Timeout(System.nanoTime() + Math.max(0L, delay.toNanos()), task);
+        added.add(timeout);
+        if (outstanding.getAndIncrement() == 0) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            if (outstanding.get() == 0) {
+                LockSupport.park(this);
+                tick = Math.max(tick, (System.nanoTime() - start) / tickNanos);
+                continue;
+            }
+            var wait = start + (tick + 1) * tickNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            transfer();
+            expire(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void transfer() {
+        for (var timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            var due = Math.max(tick, (timeout.deadline - start - 1) / tickNanos);
+            timeout.rounds = (due - tick) / buckets.size();
+            buckets.get((int) (due & mask)).add(timeout);
+        }
+    }
+
+    private void expire(ArrayList<Timeout> bucket) {
+        var kept = 0;
+        for (var timeout : bucket) {
+            if (timeout.state.get() != Timeout.PENDING) {
+                outstanding.decrementAndGet();
+            } else if (timeout.rounds > 0) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+            } else {
+                outstanding.decrementAndGet();
+                if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                    Thread.startVirtualThread(() -> runTask(timeout.task));
+                }
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOG.log(Logger.Level.WARNING, "Timeout task failed", e);
+        }
+    }
+
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long rounds;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /// Returns `false` if the task has already been started.
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED) || state.get() == CANCELLED;
+        }
+    }
+
+    private static final class Shared {
+        static final TimingWheel INSTANCE = new TimingWheel(Duration.ofMillis(10), 512);
+    }
+}
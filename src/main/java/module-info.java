@@ -21,4 +21,5 @@ module mcp.main {
     uses com.amannmalik.mcp.spi.ResourceAccessPolicy;
     uses com.amannmalik.mcp.spi.ToolAccessPolicy;
     uses com.amannmalik.mcp.spi.SamplingAccessPolicy;
+    uses com.amannmalik.mcp.spi.JsonEngine;
 }
@@ -77,7 +77,7 @@ public final class ClientFeaturesSteps {
                 base.principal(), base.clientCapabilities(), cmd, base.defaultReceiveTimeout(), base.processShutdownWait(),
                 base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                 base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
-                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(),
+                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(), base.resourceCacheBytes(),
                 base.verbose(), base.interactiveSampling(), base.rootDirectories(),
                 tlsConfig, CertificateValidationMode.STRICT, List.of(), true
         );
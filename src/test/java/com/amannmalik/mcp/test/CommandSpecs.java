@@ -7,7 +7,7 @@ final class CommandSpecs {
     private CommandSpecs() {
     }
 
-    static String stdioServer() {
+    static String stdioServer(String... options) {
         var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
         var mainJar = Path.of("build", "libs", "mcp-0.1.0.jar").toAbsolutePath().toString();
         var testClasses = Path.of("build", "classes", "java", "test").toAbsolutePath().toString();
@@ -19,6 +19,7 @@ final class CommandSpecs {
                 "com.amannmalik.mcp.cli.Entrypoint",
                 "server",
                 "--stdio",
-                "--test-mode");
+                "--test-mode",
+                String.join(" ", options)).strip();
     }
 }
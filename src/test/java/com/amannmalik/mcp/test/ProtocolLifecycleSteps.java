@@ -80,6 +80,8 @@ public final class ProtocolLifecycleSteps {
     private Exception newlineError;
     private Exception invalidResponseError;
     private boolean serverInitialized = true;
+    private Exception expiredRequestError;
+    private long expiredRequestMillis;
 
     private void httpEnsureInitialized() {
         if (httpClient == null || httpEndpoint == null) throw new IllegalStateException("HTTP server not started");
@@ -184,7 +186,7 @@ public final class ProtocolLifecycleSteps {
                 base.principal(), base.clientCapabilities(), commandSpec, base.defaultReceiveTimeout(), base.processShutdownWait(),
                 base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                 base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
-                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(),
+                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(), base.resourceCacheBytes(),
                 base.verbose(), base.interactiveSampling(), base.rootDirectories(),
                 tlsConfig, CertificateValidationMode.STRICT, List.of(), true
         );
@@ -200,7 +202,7 @@ public final class ProtocolLifecycleSteps {
                 base.principal(), capabilities, base.commandSpec(), base.defaultReceiveTimeout(), base.processShutdownWait(),
                 base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                 base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
-                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(),
+                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(), base.resourceCacheBytes(),
                 base.verbose(), base.interactiveSampling(), base.rootDirectories(),
                 tlsConfig, CertificateValidationMode.STRICT, List.of(), true
         );
@@ -1175,6 +1177,44 @@ public final class ProtocolLifecycleSteps {
         lastResponse = null;
     }
 
+    @When("I call {string} with a {int} millisecond timeout")
+    public void i_call_with_a_millisecond_timeout(String tool, int timeoutMillis) {
+        var params = Json.createObjectBuilder()
+                .add("name", tool)
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        expiredRequestError = null;
+        var start = System.nanoTime();
+        try {
+            var msg = activeConnection.client(clientId).request(RequestMethod.TOOLS_CALL, params, Duration.ofMillis(timeoutMillis));
+            if (!msg.getClass().getSimpleName().equals("JsonRpcError")) {
+                throw new AssertionError("request completed despite its deadline");
+            }
+            expiredRequestError = new IOException(msg.toString());
+        } catch (IOException e) {
+            expiredRequestError = e;
+        }
+        expiredRequestMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    @Then("the request should fail within {int} milliseconds")
+    public void the_request_should_fail_within_milliseconds(int limitMillis) {
+        if (expiredRequestError == null) {
+            throw new AssertionError("request did not fail");
+        }
+        if (expiredRequestMillis > limitMillis) {
+            throw new AssertionError("request failed after " + expiredRequestMillis + " ms");
+        }
+    }
+
+    @Then("the connection should still answer a ping")
+    public void the_connection_should_still_answer_a_ping() throws IOException {
+        var response = activeConnection.client(clientId).request(RequestMethod.PING, null, Duration.ofSeconds(5));
+        if (response == null || !response.getClass().getSimpleName().equals("JsonRpcResponse")) {
+            throw new AssertionError("ping failed: " + response);
+        }
+    }
+
     @When("my request sends progress notifications")
     public void my_request_sends_progress_notifications() {
         var params = Json.createObjectBuilder().add("progress", 0.5).build();
@@ -0,0 +1,75 @@
+package com.amannmalik.mcp.test;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Drives a stdio server with hand-written lines to check exactly what it writes
+final class RawStdioSession implements Closeable {
+    private final Process process;
+    private final PrintWriter out;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    private RawStdioSession(Process process) {
+        this.process = process;
+        this.out = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8), true);
+        Thread.ofVirtual().start(() -> {
+            try (var in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    lines.add(line);
+                }
+            } catch (IOException ignore) {
+            }
+        });
+    }
+
+    static RawStdioSession start(String... options) throws IOException {
+        var process = new ProcessBuilder(CommandSpecs.stdioServer(options).split(" "))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return new RawStdioSession(process);
+    }
+
+    RawStdioSession initialize() throws InterruptedException {
+        return initialize("{}");
+    }
+
+    RawStdioSession initialize(String capabilities) throws InterruptedException {
+        send("{\"jsonrpc\":\"2.0\",\"id\":0,\"method\":\"initialize\",\"params\":{\"protocolVersion\":\"2025-06-18\","
+                + "\"capabilities\":" + capabilities + ",\"clientInfo\":{\"name\":\"raw\",\"version\":\"1.0\"}}}");
+        while (!next(Duration.ofSeconds(10)).containsKey("id")) {
+            // skip anything the server logs before its response
+        }
+        send("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}");
+        return this;
+    }
+
+    void send(String line) {
+        out.println(line);
+    }
+
+    String nextLine(Duration timeout) throws InterruptedException {
+        var line = lines.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        if (line == null) {
+            throw new AssertionError("server wrote nothing within " + timeout);
+        }
+        return line;
+    }
+
+    JsonObject next(Duration timeout) throws InterruptedException {
+        try (var reader = Json.createReader(new StringReader(nextLine(timeout)))) {
+            return reader.readObject();
+        }
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+    }
+}
@@ -1,6 +1,8 @@
 package com.amannmalik.mcp.test;
 
 import com.amannmalik.mcp.api.*;
+import com.amannmalik.mcp.codec.ResourceCatalogCodec;
+import com.amannmalik.mcp.codec.ResourceVersionCodec;
 import com.amannmalik.mcp.spi.*;
 import io.cucumber.datatable.DataTable;
 import io.cucumber.java.After;
@@ -9,10 +11,18 @@ import jakarta.json.*;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BooleanSupplier;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class ServerFeaturesSteps {
@@ -29,6 +39,16 @@ public final class ServerFeaturesSteps {
     private final Set<ServerCapability> serverCapabilities = EnumSet.noneOf(ServerCapability.class);
     private final Set<ServerFeature> serverFeatures = EnumSet.noneOf(ServerFeature.class);
     private final List<Map<String, String>> toolErrorScenarioRows = new ArrayList<>();
+    private final Map<String, String> schemaCallOutcomes = new LinkedHashMap<>();
+    private final Map<String, String> expectedSchemaCallOutcomes = new LinkedHashMap<>();
+    private final Map<String, String> templatedReadOutcomes = new LinkedHashMap<>();
+    private final Map<String, String> expectedTemplatedReadOutcomes = new LinkedHashMap<>();
+    private final Map<String, String> rootedReadOutcomes = new LinkedHashMap<>();
+    private long deniedReadsBefore;
+    private long deniedReadsAfter;
+    private final Map<String, String> expectedRootedReadOutcomes = new LinkedHashMap<>();
+    private final Map<String, String> toolCallErrors = new LinkedHashMap<>();
+    private final Map<String, String> expectedToolCallErrors = new LinkedHashMap<>();
     private final Map<String, Boolean> protocolErrorOccurred = new HashMap<>();
     private final Map<String, Boolean> toolErrorOccurred = new HashMap<>();
     private final Map<String, JsonObject> contentTypeSamples = new HashMap<>();
@@ -41,6 +61,13 @@ public final class ServerFeaturesSteps {
     private final List<Map<String, String>> loggingErrorScenarios = new ArrayList<>();
     private final List<Map<String, String>> completionErrorScenarios = new ArrayList<>();
     private final List<Map<String, String>> currentErrorScenarios = new ArrayList<>();
+    private final List<String> rawSubscribeOrder = new ArrayList<>();
+    private final AtomicInteger cachedResourceUpdates = new AtomicInteger();
+    private final Map<String, String> quotaRejections = new LinkedHashMap<>();
+    private final List<ServerHarness> sharedServers = new ArrayList<>();
+    private final Map<String, AtomicInteger> sessionUpdates = new HashMap<>();
+    private final Map<String, Closeable> sessionSubscriptions = new HashMap<>();
+    private final Map<String, String> expectedQuotaRejections = new LinkedHashMap<>();
     private final Map<String, Boolean> sensitiveExposure = new HashMap<>();
     private McpHost activeConnection;
     private String clientId;
@@ -50,9 +77,13 @@ public final class ServerFeaturesSteps {
     private ListToolsResult secondPage;
     private Tool targetTool;
     private ToolResult lastToolResult;
+    private ToolResult previousToolResult;
+    private ResourceChanges catalogChanges;
     private Exception lastToolException;
     private boolean subscribedToToolUpdates;
     private boolean toolListChangedNotification;
+    private boolean secondListingCached;
+    private final List<String> concurrentCallOutcomes = new ArrayList<>();
     private List<JsonObject> availableResources = List.of();
     private ListResourcesResult firstResourcePage;
     private ListResourcesResult secondResourcePage;
@@ -74,10 +105,21 @@ public final class ServerFeaturesSteps {
     private boolean maliciousInputSanitized;
     private boolean maliciousInputRejected;
     private boolean rateLimited;
+    private int callsBeforeRateLimit;
     private boolean accessControlsConfigured;
     private boolean unauthorizedDenied;
     private boolean errorMessageProvided;
     private Closeable resourceSubscriptionHandle;
+    private Long resourceCacheBytes;
+    private String lastCachedRead;
+    private String recordedEtag;
+    private List<String> streamedResources = List.of();
+    private long streamedPages;
+    private Path fsBase;
+    private Path fsRoot;
+    private FileSystemResourceProvider fsProvider;
+    private final AtomicInteger fsListChanges = new AtomicInteger();
+    private final List<ResourceUpdate> fsUpdates = new CopyOnWriteArrayList<>();
 
     private static JsonObject extractResult(JsonRpcMessage msg) {
         // Fallback: parse result JSON from record toString representation
@@ -99,8 +141,50 @@ public final class ServerFeaturesSteps {
 
     @Given("an established MCP connection with server capabilities")
     public void an_established_mcp_connection_with_server_capabilities() throws Exception {
-        var base = McpClientConfiguration.defaultConfiguration("client", "client", "default");
-        var cmd = CommandSpecs.stdioServer();
+        connect();
+    }
+
+    @Given("the server was started with {string}")
+    public void the_server_was_started_with(String options) throws Exception {
+        if (activeConnection != null) {
+            activeConnection.close();
+        }
+        connect(options.split(" "));
+    }
+
+    private void connect(String... serverOptions) throws Exception {
+        var clientConfig = clientConfiguration("client", CommandSpecs.stdioServer(serverOptions));
+        activeConnection = McpHost.create(hostConfiguration(List.of(clientConfig)));
+        activeConnection.allowAudience(Role.USER);
+        activeConnection.grantConsent("server");
+        activeConnection.grantConsent("tool:test_tool");
+        activeConnection.grantConsent("tool:error_tool");
+        activeConnection.grantConsent("tool:echo_tool");
+        activeConnection.grantConsent("tool:slow_tool");
+        activeConnection.grantConsent("tool:image_tool");
+        activeConnection.grantConsent("tool:audio_tool");
+        activeConnection.grantConsent("tool:link_tool");
+        activeConnection.grantConsent("tool:embedded_tool");
+        activeConnection.grantConsent("tool:shape_tool");
+        activeConnection.grantConsent("tool:status_tool");
+        activeConnection.grantConsent("tool:counter_tool");
+        activeConnection.allowTool("test_tool");
+        activeConnection.allowTool("error_tool");
+        activeConnection.allowTool("echo_tool");
+        activeConnection.allowTool("slow_tool");
+        activeConnection.allowTool("image_tool");
+        activeConnection.allowTool("audio_tool");
+        activeConnection.allowTool("link_tool");
+        activeConnection.allowTool("embedded_tool");
+        activeConnection.allowTool("shape_tool");
+        activeConnection.allowTool("status_tool");
+        activeConnection.allowTool("counter_tool");
+        clientId = clientConfig.clientId();
+        activeConnection.connect(clientId);
+    }
+
+    private McpClientConfiguration clientConfiguration(String clientId, String cmd) {
+        var base = McpClientConfiguration.defaultConfiguration(clientId, "client", "default");
         var roots = Stream.concat(
                 base.rootDirectories().stream(),
                 Stream.of("/sample", "/project")).toList();
@@ -108,16 +192,20 @@ public final class ServerFeaturesSteps {
                 "", "", "PKCS12", "", "", "PKCS12",
                 List.of("TLSv1.3", "TLSv1.2"), List.of("TLS_AES_128_GCM_SHA256", "TLS_AES_256_GCM_SHA384")
         );
-        var clientConfig = new McpClientConfiguration(
+        return new McpClientConfiguration(
                 base.clientId(), base.serverName(), base.serverDisplayName(), base.serverVersion(),
                 base.principal(), base.clientCapabilities(), cmd, base.defaultReceiveTimeout(), base.processShutdownWait(),
                 base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                 base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
                 base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(),
+                resourceCacheBytes == null ? base.resourceCacheBytes() : resourceCacheBytes,
                 base.verbose(), base.interactiveSampling(), roots,
                 tlsConfig, CertificateValidationMode.STRICT, List.of(), true
         );
-        var hostConfig = new McpHostConfiguration(
+    }
+
+    private static McpHostConfiguration hostConfiguration(List<McpClientConfiguration> clients) {
+        return new McpHostConfiguration(
                 "2025-06-18",
                 "2025-03-26",
                 "mcp-host",
@@ -129,29 +217,8 @@ public final class ServerFeaturesSteps {
                 2,
                 100,
                 false,
-                List.of(clientConfig)
+                clients
         );
-        activeConnection = McpHost.create(hostConfig);
-        activeConnection.allowAudience(Role.USER);
-        activeConnection.grantConsent("server");
-        activeConnection.grantConsent("tool:test_tool");
-        activeConnection.grantConsent("tool:error_tool");
-        activeConnection.grantConsent("tool:echo_tool");
-        activeConnection.grantConsent("tool:slow_tool");
-        activeConnection.grantConsent("tool:image_tool");
-        activeConnection.grantConsent("tool:audio_tool");
-        activeConnection.grantConsent("tool:link_tool");
-        activeConnection.grantConsent("tool:embedded_tool");
-        activeConnection.allowTool("test_tool");
-        activeConnection.allowTool("error_tool");
-        activeConnection.allowTool("echo_tool");
-        activeConnection.allowTool("slow_tool");
-        activeConnection.allowTool("image_tool");
-        activeConnection.allowTool("audio_tool");
-        activeConnection.allowTool("link_tool");
-        activeConnection.allowTool("embedded_tool");
-        clientId = clientConfig.clientId();
-        activeConnection.connect(clientId);
     }
 
     @Given("the server supports tools functionality")
@@ -428,6 +495,90 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    @When("I call the tool with each of these arguments:")
+    public void i_call_the_tool_with_each_of_these_arguments(DataTable table) {
+        schemaCallOutcomes.clear();
+        expectedSchemaCallOutcomes.clear();
+        for (var row : table.asMaps(String.class, String.class)) {
+            var arguments = row.get("arguments");
+            expectedSchemaCallOutcomes.put(arguments, row.get("outcome"));
+            String outcome;
+            try (var reader = Json.createReader(new StringReader(arguments))) {
+                var result = activeConnection.callTool(clientId, targetTool.name(), reader.readObject());
+                outcome = result.isError() ? "rejected" : "accepted";
+            } catch (Exception e) {
+                outcome = "rejected";
+            }
+            schemaCallOutcomes.put(arguments, outcome);
+        }
+    }
+
+    @When("I call each of these tools without arguments:")
+    public void i_call_each_of_these_tools_without_arguments(DataTable table) {
+        toolCallErrors.clear();
+        expectedToolCallErrors.clear();
+        for (var row : table.asMaps(String.class, String.class)) {
+            var name = row.get("tool");
+            expectedToolCallErrors.put(name, row.get("error"));
+            var params = Json.createObjectBuilder()
+                    .add("name", name)
+                    .add("arguments", Json.createObjectBuilder())
+                    .build();
+            String error;
+            try {
+                var msg = activeConnection.client(clientId).request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5));
+                error = msg.getClass().getSimpleName().equals("JsonRpcError") ? msg.toString() : "";
+            } catch (IOException e) {
+                error = String.valueOf(e.getMessage());
+            }
+            toolCallErrors.put(name, error);
+        }
+    }
+
+    @Then("each call should fail with the expected error")
+    public void each_call_should_fail_with_the_expected_error() {
+        if (expectedToolCallErrors.isEmpty()) {
+            throw new AssertionError("no calls made");
+        }
+        expectedToolCallErrors.forEach((name, expected) -> {
+            if (!toolCallErrors.get(name).contains(expected)) {
+                throw new AssertionError(name + " gave " + toolCallErrors.get(name) + ", expected " + expected);
+            }
+        });
+    }
+
+    @When("I call the tool with argument {string} set to {string}")
+    public void i_call_the_tool_with_argument_set_to(String name, String value) throws IOException {
+        previousToolResult = lastToolResult;
+        lastToolResult = activeConnection.callTool(clientId, targetTool.name(), Json.createObjectBuilder().add(name, value).build());
+    }
+
+    @Then("the result should match the previous result")
+    public void the_result_should_match_the_previous_result() {
+        if (previousToolResult == null || !previousToolResult.content().equals(lastToolResult.content())) {
+            throw new AssertionError("result not reused: " + previousToolResult + " then " + lastToolResult);
+        }
+    }
+
+    @Then("the result should differ from the previous result")
+    public void the_result_should_differ_from_the_previous_result() {
+        if (previousToolResult == null || previousToolResult.content().equals(lastToolResult.content())) {
+            throw new AssertionError("result unexpectedly reused: " + lastToolResult);
+        }
+    }
+
+    @Then("each call should have the expected outcome")
+    public void each_call_should_have_the_expected_outcome() {
+        if (expectedSchemaCallOutcomes.isEmpty()) {
+            throw new AssertionError("no calls made");
+        }
+        expectedSchemaCallOutcomes.forEach((arguments, expected) -> {
+            if (!expected.equals(schemaCallOutcomes.get(arguments))) {
+                throw new AssertionError(arguments + " was " + schemaCallOutcomes.get(arguments) + ", expected " + expected);
+            }
+        });
+    }
+
     @Then("I should receive appropriate error responses for each scenario")
     public void i_should_receive_appropriate_error_responses_for_each_scenario() {
         if (toolErrorScenarioRows.isEmpty()) {
@@ -467,6 +618,117 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    @When("I make {int} concurrent calls to {string}")
+    public void i_make_concurrent_calls_to(int count, String tool) throws Exception {
+        var client = activeConnection.client(clientId);
+        var params = Json.createObjectBuilder()
+                .add("name", tool)
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        concurrentCallOutcomes.clear();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var calls = new ArrayList<Future<JsonRpcMessage>>();
+            for (var i = 0; i < count; i++) {
+                calls.add(executor.submit(() -> client.request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5))));
+            }
+            for (var call : calls) {
+                concurrentCallOutcomes.add(callOutcome(call.get()));
+            }
+        }
+    }
+
+    @Then("at least one call should fail with error code {int}")
+    public void at_least_one_call_should_fail_with_error_code(int code) {
+        if (!concurrentCallOutcomes.contains(Integer.toString(code))) {
+            throw new AssertionError("no call failed with " + code + ": " + concurrentCallOutcomes);
+        }
+    }
+
+    @Then("at least one call should succeed")
+    public void at_least_one_call_should_succeed() {
+        if (!concurrentCallOutcomes.contains("ok")) {
+            throw new AssertionError("no call succeeded: " + concurrentCallOutcomes);
+        }
+    }
+
+    @Then("a further call to {string} should succeed")
+    public void a_further_call_to_should_succeed(String tool) throws IOException {
+        var params = Json.createObjectBuilder()
+                .add("name", tool)
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        var outcome = callOutcome(activeConnection.client(clientId).request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5)));
+        if (!"ok".equals(outcome)) {
+            throw new AssertionError("call failed with " + outcome);
+        }
+    }
+
+    // "ok" for a response, else the JSON-RPC error code
+    private static String callOutcome(JsonRpcMessage msg) {
+        if (!msg.getClass().getSimpleName().equals("JsonRpcError")) {
+            return "ok";
+        }
+        var m = Pattern.compile("code=(-?\\d+)").matcher(msg.toString());
+        return m.find() ? m.group(1) : msg.toString();
+    }
+
+    @When("I list tools twice in a row")
+    public void i_list_tools_twice_in_a_row() throws IOException {
+        // the fixture announces catalogue changes every second, so a pair may straddle one
+        secondListingCached = false;
+        for (var attempt = 0; attempt < 5 && !secondListingCached; attempt++) {
+            listToolsDirectly();
+            var before = toolListings();
+            listToolsDirectly();
+            secondListingCached = toolListings() == before;
+        }
+    }
+
+    @Then("the second listing should not reach the tool provider")
+    public void the_second_listing_should_not_reach_the_tool_provider() {
+        if (!secondListingCached) {
+            throw new AssertionError("every repeated listing reached the provider");
+        }
+    }
+
+    @Then("the next tool listing should reach the tool provider")
+    public void the_next_tool_listing_should_reach_the_tool_provider() throws IOException {
+        var before = toolListings();
+        listToolsDirectly();
+        var after = toolListings();
+        if (after != before + 1) {
+            throw new AssertionError("expected one provider listing but saw " + (after - before));
+        }
+    }
+
+    private void listToolsDirectly() throws IOException {
+        var msg = activeConnection.client(clientId).request(RequestMethod.TOOLS_LIST, null, Duration.ofSeconds(5));
+        if (extractResult(msg) == null) {
+            throw new AssertionError("tools/list failed: " + msg);
+        }
+    }
+
+    private long toolListings() throws IOException {
+        return Long.parseLong(fixtureToolText("listings_tool"));
+    }
+
+    private String fixtureToolText(String name) throws IOException {
+        return fixtureToolText(name, JsonValue.EMPTY_JSON_OBJECT);
+    }
+
+    private String fixtureToolText(String name, JsonObject arguments) throws IOException {
+        var params = Json.createObjectBuilder()
+                .add("name", name)
+                .add("arguments", arguments)
+                .build();
+        var msg = activeConnection.client(clientId).request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5));
+        var result = extractResult(msg);
+        if (result == null) {
+            throw new AssertionError(name + " failed: " + msg);
+        }
+        return result.getJsonArray("content").getJsonObject(0).getString("text");
+    }
+
     @Then("I should receive a \"notifications\\/tools\\/list_changed\" notification")
     public void i_should_receive_a_notifications_tools_list_changed_notification() {
         if (!toolListChangedNotification) {
@@ -740,6 +1002,101 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    @When("I read resources through the templates:")
+    public void i_read_resources_through_the_templates(DataTable table) {
+        templatedReadOutcomes.clear();
+        expectedTemplatedReadOutcomes.clear();
+        for (var row : table.asMaps(String.class, String.class)) {
+            var uri = row.get("uri");
+            expectedTemplatedReadOutcomes.put(uri, row.get("outcome"));
+            templatedReadOutcomes.put(uri, readOutcome(uri));
+        }
+    }
+
+    @When("I read these files against my roots:")
+    public void i_read_these_files_against_my_roots(DataTable table) {
+        rootedReadOutcomes.clear();
+        expectedRootedReadOutcomes.clear();
+        for (var row : table.asMaps(String.class, String.class)) {
+            var uri = row.get("uri");
+            var expected = row.get("outcome");
+            expectedRootedReadOutcomes.put(uri, expected);
+            // the server learns the roots asynchronously after initialization
+            var end = System.nanoTime() + Duration.ofSeconds(3).toNanos();
+            var outcome = readOutcome(uri);
+            while (!expected.equals(outcome) && System.nanoTime() - end < 0) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                outcome = readOutcome(uri);
+            }
+            rootedReadOutcomes.put(uri, outcome);
+        }
+    }
+
+    @Then("each read should be confined to my roots")
+    public void each_read_should_be_confined_to_my_roots() {
+        if (expectedRootedReadOutcomes.isEmpty()) {
+            throw new AssertionError("no reads made");
+        }
+        expectedRootedReadOutcomes.forEach((uri, expected) -> {
+            if (!expected.equals(rootedReadOutcomes.get(uri))) {
+                throw new AssertionError(uri + " gave " + rootedReadOutcomes.get(uri) + ", expected " + expected);
+            }
+        });
+    }
+
+    @When("I read {string} {int} more times")
+    public void i_read_more_times(String uri, int times) throws Exception {
+        var arguments = Json.createObjectBuilder().add("uri", uri).build();
+        deniedReadsBefore = Long.parseLong(fixtureToolText("reads_tool", arguments));
+        for (int i = 0; i < times; i++) {
+            var outcome = readOutcome(uri);
+            if (!"Resource not found".equals(outcome)) {
+                throw new AssertionError(uri + " gave " + outcome);
+            }
+        }
+        deniedReadsAfter = Long.parseLong(fixtureToolText("reads_tool", arguments));
+    }
+
+    @Then("the provider should not have read the denied file again")
+    public void the_provider_should_not_have_read_the_denied_file_again() {
+        if (deniedReadsAfter != deniedReadsBefore) {
+            throw new AssertionError("denied reads reached the provider "
+                    + (deniedReadsAfter - deniedReadsBefore) + " time(s)");
+        }
+    }
+
+    private String readOutcome(String uri) {
+        try {
+            var params = Json.createObjectBuilder().add("uri", uri).build();
+            var msg = activeConnection.client(clientId).request(RequestMethod.RESOURCES_READ, params, Duration.ofSeconds(5));
+            var result = extractResult(msg);
+            if (result != null && result.containsKey("contents")) {
+                return result.getJsonArray("contents").getJsonObject(0).getString("text", "");
+            }
+            var m = Pattern.compile("message=([^,\\]]+)").matcher(msg.toString());
+            return m.find() ? m.group(1) : msg.toString();
+        } catch (Exception e) {
+            return String.valueOf(e.getMessage());
+        }
+    }
+
+    @Then("each templated read should have the expected outcome")
+    public void each_templated_read_should_have_the_expected_outcome() {
+        if (expectedTemplatedReadOutcomes.isEmpty()) {
+            throw new AssertionError("no reads made");
+        }
+        expectedTemplatedReadOutcomes.forEach((uri, expected) -> {
+            if (!expected.equals(templatedReadOutcomes.get(uri))) {
+                throw new AssertionError(uri + " gave " + templatedReadOutcomes.get(uri) + ", expected " + expected);
+            }
+        });
+    }
+
     @Given("the server has resources capability with {string} enabled")
     public void the_server_has_resources_capability_with_enabled(String feature) {
         var f = switch (feature) {
@@ -752,6 +1109,52 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    @When("I request the resource catalogue changes since {string}")
+    public void i_request_the_resource_catalogue_changes_since(String since) throws Exception {
+        var params = ResourceCatalogCodec.withSince(Json.createObjectBuilder().build(), since);
+        var msg = activeConnection.client(clientId).request(RequestMethod.RESOURCES_LIST, params, Duration.ofSeconds(5));
+        catalogChanges = ResourceCatalogCodec.fromResult(extractResult(msg))
+                .orElseThrow(() -> new AssertionError("no catalogue in " + msg));
+    }
+
+    @When("I request the resource catalogue changes since the returned version")
+    public void i_request_the_resource_catalogue_changes_since_the_returned_version() throws Exception {
+        i_request_the_resource_catalogue_changes_since(catalogChanges.version());
+    }
+
+    @Then("the catalogue changes should be a reset holding every listed resource")
+    public void the_catalogue_changes_should_be_a_reset_holding_every_listed_resource() {
+        if (!catalogChanges.reset() || !catalogChanges.updated().isEmpty() || !catalogChanges.removed().isEmpty()) {
+            throw new AssertionError("expected a reset: " + catalogChanges);
+        }
+        var added = catalogChanges.added().stream().map(Resource::uri).collect(Collectors.toSet());
+        if (!added.equals(listedResourceUris())) {
+            throw new AssertionError("reset held " + added + " but the list has " + listedResourceUris());
+        }
+    }
+
+    @Then("the catalogue changes should be empty")
+    public void the_catalogue_changes_should_be_empty() {
+        if (catalogChanges.reset() || !catalogChanges.added().isEmpty()
+                || !catalogChanges.updated().isEmpty() || !catalogChanges.removed().isEmpty()) {
+            throw new AssertionError("expected no changes: " + catalogChanges);
+        }
+    }
+
+    @Then("the mirrored resources should match the resource list")
+    public void the_mirrored_resources_should_match_the_resource_list() throws IOException {
+        var mirrored = activeConnection.client(clientId).mirroredResources().stream().map(Resource::uri).collect(Collectors.toSet());
+        if (!mirrored.equals(listedResourceUris())) {
+            throw new AssertionError("mirror has " + mirrored + " but the list has " + listedResourceUris());
+        }
+    }
+
+    private Set<URI> listedResourceUris() {
+        try (var all = activeConnection.client(clientId).resources(0)) {
+            return all.map(Resource::uri).collect(Collectors.toSet());
+        }
+    }
+
     @Given("there is a resource I want to monitor")
     public void there_is_a_resource_i_want_to_monitor() throws Exception {
         if (resourceUri == null) {
@@ -822,6 +1225,204 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    @When("I stream the resources with a page size of {int}")
+    public void i_stream_the_resources_with_a_page_size_of(int pageSize) throws Exception {
+        var pages = Long.parseLong(fixtureToolText("pages_tool"));
+        try (var stream = activeConnection.client(clientId).resources(pageSize)) {
+            streamedResources = stream.map(r -> r.uri().toString()).toList();
+        }
+        streamedPages = Long.parseLong(fixtureToolText("pages_tool")) - pages;
+    }
+
+    @Then("the stream should list every resource in catalogue order")
+    public void the_stream_should_list_every_resource_in_catalogue_order() throws Exception {
+        var result = extractResult(activeConnection.client(clientId).request(
+                RequestMethod.RESOURCES_LIST, Json.createObjectBuilder().build(), Duration.ofSeconds(5)));
+        if (result == null || result.containsKey("nextCursor")) {
+            throw new AssertionError("expected the whole catalogue in one page: " + result);
+        }
+        var catalogue = result.getJsonArray("resources").getValuesAs(JsonObject.class).stream()
+                .map(r -> r.getString("uri"))
+                .toList();
+        if (!catalogue.equals(streamedResources)) {
+            throw new AssertionError("expected " + catalogue + " but streamed " + streamedResources);
+        }
+    }
+
+    @Then("the server should have listed {int} resource page(s)")
+    public void the_server_should_have_listed_resource_pages(int expected) {
+        if (streamedPages != expected) {
+            throw new AssertionError("expected " + expected + " pages but listed " + streamedPages);
+        }
+    }
+
+    @Given("the client caches at most {int} bytes of resource contents")
+    public void the_client_caches_at_most_bytes_of_resource_contents(int bytes) throws Exception {
+        if (activeConnection != null) {
+            activeConnection.close();
+        }
+        resourceCacheBytes = (long) bytes;
+        connect();
+    }
+
+    @Given("I subscribe to {string} through the client")
+    public void i_subscribe_to_through_the_client(String uri) throws Exception {
+        resourceSubscriptionHandle = activeConnection.client(clientId)
+                .subscribeResource(URI.create(uri), update -> cachedResourceUpdates.incrementAndGet());
+        // the initial update invalidates whatever was cached before the subscription
+        if (!awaitCondition(() -> cachedResourceUpdates.get() > 0, Duration.ofSeconds(5))) {
+            throw new AssertionError("initial resource update not received");
+        }
+    }
+
+    @When("I read {string} through the client")
+    public void i_read_through_the_client(String uri) throws Exception {
+        var contents = activeConnection.client(clientId).readResource(URI.create(uri));
+        if (!(contents.getFirst() instanceof ResourceBlock.Text text)) {
+            throw new AssertionError("expected text content: " + contents);
+        }
+        lastCachedRead = text.text();
+    }
+
+    @Then("the read should return {string}")
+    public void the_read_should_return(String expected) {
+        if (!expected.equals(lastCachedRead)) {
+            throw new AssertionError("expected " + expected + " but read " + lastCachedRead);
+        }
+    }
+
+    @Then("a read of {string} with its current etag should be not modified")
+    public void a_read_of_with_its_current_etag_should_be_not_modified(String uri) throws Exception {
+        var params = Json.createObjectBuilder().add("uri", uri).build();
+        var full = extractResult(activeConnection.client(clientId).request(RequestMethod.RESOURCES_READ, params, Duration.ofSeconds(5)));
+        recordedEtag = ResourceVersionCodec.fromMeta(full)
+                .orElseThrow(() -> new AssertionError("read result carries no etag: " + full));
+        var revalidated = extractResult(activeConnection.client(clientId).request(
+                RequestMethod.RESOURCES_READ, ResourceVersionCodec.withEtag(params, recordedEtag), Duration.ofSeconds(5)));
+        if (!ResourceVersionCodec.isNotModified(revalidated) || !revalidated.getJsonArray("contents").isEmpty()) {
+            throw new AssertionError("expected not modified: " + revalidated);
+        }
+    }
+
+    @Then("a read of {string} with that etag should return {string}")
+    public void a_read_of_with_that_etag_should_return(String uri, String expected) throws Exception {
+        var params = ResourceVersionCodec.withEtag(Json.createObjectBuilder().add("uri", uri).build(), recordedEtag);
+        var result = extractResult(activeConnection.client(clientId).request(RequestMethod.RESOURCES_READ, params, Duration.ofSeconds(5)));
+        if (ResourceVersionCodec.isNotModified(result)
+                || !expected.equals(result.getJsonArray("contents").getJsonObject(0).getString("text"))) {
+            throw new AssertionError("expected full content " + expected + ": " + result);
+        }
+    }
+
+    @When("the draft resource is revised")
+    public void the_draft_resource_is_revised() throws Exception {
+        var updates = cachedResourceUpdates.get();
+        fixtureToolText("revise_tool");
+        if (resourceSubscriptionHandle != null
+                && !awaitCondition(() -> cachedResourceUpdates.get() > updates, Duration.ofSeconds(5))) {
+            throw new AssertionError("resource update not received");
+        }
+    }
+
+    @Then("the server should have read the draft resource {int} time(s)")
+    public void the_server_should_have_read_the_draft_resource_times(int expected) throws Exception {
+        var reads = Long.parseLong(fixtureToolText("reads_tool"));
+        if (reads != expected) {
+            throw new AssertionError("expected " + expected + " reads of the draft but saw " + reads);
+        }
+    }
+
+    @Given("sessions {string} and {string} are served by one server process")
+    public void sessions_and_are_served_by_one_server_process(String first, String second) throws Exception {
+        if (activeConnection != null) {
+            activeConnection.close();
+        }
+        // each in-process server is one session; they share the process-wide subscription hub
+        var clients = new ArrayList<McpClientConfiguration>();
+        for (var session : List.of(first, second)) {
+            var server = ServerHarness.start();
+            sharedServers.add(server);
+            clients.add(clientConfiguration(session, server.endpoint().toString()));
+        }
+        activeConnection = McpHost.create(hostConfiguration(clients));
+        activeConnection.allowAudience(Role.USER);
+        activeConnection.grantConsent("server");
+        for (var client : clients) {
+            activeConnection.connect(client.clientId());
+        }
+        clientId = first;
+    }
+
+    @When("session {string} subscribes to {string}")
+    public void session_subscribes_to(String session, String uri) throws Exception {
+        var updates = sessionUpdates.computeIfAbsent(session, s -> new AtomicInteger());
+        sessionSubscriptions.put(session, activeConnection.client(session)
+                .subscribeResource(URI.create(uri), update -> updates.incrementAndGet()));
+    }
+
+    @When("session {string} revises the draft resource")
+    public void session_revises_the_draft_resource(String session) throws Exception {
+        sessionUpdates.values().forEach(updates -> updates.set(0));
+        var params = Json.createObjectBuilder()
+                .add("name", "revise_tool")
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        var outcome = callOutcome(activeConnection.client(session).request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5)));
+        if (!"ok".equals(outcome)) {
+            throw new AssertionError("revise_tool failed with " + outcome);
+        }
+    }
+
+    @Then("sessions {string} and {string} should both be notified of the update")
+    public void sessions_and_should_both_be_notified_of_the_update(String first, String second) {
+        for (var session : List.of(first, second)) {
+            var updates = sessionUpdates.get(session);
+            if (updates == null || !awaitCondition(() -> updates.get() > 0, Duration.ofSeconds(5))) {
+                throw new AssertionError("session " + session + " was not notified");
+            }
+        }
+    }
+
+    @When("session {string} unsubscribes from the draft resource")
+    public void session_unsubscribes_from_the_draft_resource(String session) throws Exception {
+        sessionSubscriptions.remove(session).close();
+    }
+
+    @Then("the provider should hold {int} subscription(s) to the draft resource")
+    public void the_provider_should_hold_subscriptions_to_the_draft_resource(int expected) throws Exception {
+        var held = Integer.parseInt(fixtureToolText("subscriptions_tool"));
+        if (held != expected) {
+            throw new AssertionError("expected " + expected + " provider subscriptions but found " + held);
+        }
+    }
+
+    @When("a raw stdio session subscribes to {string}")
+    public void a_raw_stdio_session_subscribes_to(String uri) throws Exception {
+        try (var session = RawStdioSession.start().initialize()) {
+            session.send("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"resources/subscribe\",\"params\":{\"uri\":\"" + uri + "\"}}");
+            rawSubscribeOrder.clear();
+            while (!rawSubscribeOrder.contains("notifications/resources/updated")) {
+                var msg = session.next(Duration.ofSeconds(10));
+                if (msg.containsKey("method")) {
+                    rawSubscribeOrder.add(msg.getString("method"));
+                } else if (msg.getJsonNumber("id").intValue() == 2) {
+                    if (msg.containsKey("error")) {
+                        throw new AssertionError("subscribe failed: " + msg);
+                    }
+                    rawSubscribeOrder.add("subscribe response");
+                }
+            }
+        }
+    }
+
+    @Then("the subscribe response should be written before the first {string}")
+    public void the_subscribe_response_should_be_written_before_the_first(String method) {
+        var response = rawSubscribeOrder.indexOf("subscribe response");
+        if (response < 0 || response > rawSubscribeOrder.indexOf(method)) {
+            throw new AssertionError("expected the subscribe response before " + method + ": " + rawSubscribeOrder);
+        }
+    }
+
     @When("the server's resource list changes")
     public void the_server_s_resource_list_changes() {
         var events = activeConnection.events(clientId);
@@ -1636,6 +2237,88 @@ public final class ServerFeaturesSteps {
         rateLimited = failures > 0;
     }
 
+    @When("I call {string} until the server reports rate limiting")
+    public void i_call_until_the_server_reports_rate_limiting(String tool) {
+        rateLimited = false;
+        callsBeforeRateLimit = 0;
+        for (int i = 0; i < 100 && !rateLimited; i++) {
+            try {
+                activeConnection.callTool(clientId, tool, Json.createObjectBuilder().build());
+                callsBeforeRateLimit++;
+            } catch (Exception e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("Rate limit exceeded")) {
+                    throw new AssertionError("unexpected failure", e);
+                }
+                rateLimited = true;
+            }
+        }
+        if (!rateLimited) {
+            throw new AssertionError("rate limit never applied");
+        }
+    }
+
+    @Then("at least {int} calls should have been accepted first")
+    public void at_least_calls_should_have_been_accepted_first(int expected) {
+        if (callsBeforeRateLimit < expected) {
+            throw new AssertionError("only " + callsBeforeRateLimit + " calls accepted before rate limiting");
+        }
+    }
+
+    @When("I exceed each request quota with {string}:")
+    public void i_exceed_each_request_quota_with(String tool, DataTable table) throws Exception {
+        var params = Json.createObjectBuilder()
+                .add("name", tool)
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        for (var row : table.asMaps(String.class, String.class)) {
+            var option = row.get("option");
+            if (activeConnection != null) {
+                activeConnection.close();
+            }
+            // a quota of 2 stays below the per-tool limit, so only the quota layer rejects
+            connect(option, "2");
+            var client = activeConnection.client(clientId);
+            for (var call = 1; call <= 2; call++) {
+                var outcome = callOutcome(client.request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5)));
+                if (!"ok".equals(outcome)) {
+                    throw new AssertionError(option + ": call " + call + " failed with " + outcome);
+                }
+            }
+            quotaRejections.put(option, client.request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5)).toString());
+            expectedQuotaRejections.put(option, row.get("rejection"));
+        }
+    }
+
+    @Then("each quota should reject the third call with a retryAfterMs hint")
+    public void each_quota_should_reject_the_third_call_with_a_retry_after_ms_hint() {
+        expectedQuotaRejections.forEach((option, expected) -> {
+            var error = quotaRejections.get(option);
+            var message = Pattern.compile("message=(.*?), data=").matcher(error);
+            if (!message.find() || !message.group(1).startsWith(expected)) {
+                throw new AssertionError(option + ": expected " + expected + " but got " + error);
+            }
+            var retry = Pattern.compile("\"retryAfterMs\":(\\d+)").matcher(error);
+            // the hint never exceeds the 1 s limiter window
+            if (!retry.find() || Long.parseLong(retry.group(1)) < 1 || Long.parseLong(retry.group(1)) > 1_000) {
+                throw new AssertionError(option + ": missing or implausible retryAfterMs in " + error);
+            }
+        });
+    }
+
+    @When("I wait {int} milliseconds")
+    public void i_wait_milliseconds(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Then("a call to {string} should succeed")
+    public void a_call_to_should_succeed(String tool) {
+        try {
+            activeConnection.callTool(clientId, tool, Json.createObjectBuilder().build());
+        } catch (Exception e) {
+            throw new AssertionError("call rejected", e);
+        }
+    }
+
     @Then("the server should validate and sanitize all inputs")
     public void the_server_should_validate_and_sanitize_all_inputs() {
         if (!maliciousInputSanitized && !maliciousInputRejected) {
@@ -1796,6 +2479,94 @@ public final class ServerFeaturesSteps {
         }
     }
 
+    // --- Filesystem provider -------------------------------------------
+    @Given("a filesystem resource provider over a directory containing:")
+    public void a_filesystem_resource_provider_over_a_directory_containing(DataTable table) throws IOException {
+        fsBase = Files.createTempDirectory("mcp-fs").toRealPath();
+        fsRoot = Files.createDirectory(fsBase.resolve("root"));
+        Files.writeString(fsBase.resolve("outside.txt"), "outside");
+        for (var row : table.asMaps(String.class, String.class)) {
+            write(row.get("path"), row.get("content"));
+        }
+        fsProvider = new FileSystemResourceProvider(List.of(fsRoot));
+        fsProvider.onListChanged(fsListChanges::incrementAndGet);
+    }
+
+    @Then("listing the provider {int} resource(s) per page should yield:")
+    public void listing_the_provider_resources_per_page_should_yield(int pageSize, DataTable table) {
+        var expected = table.asMaps(String.class, String.class).stream().map(r -> r.get("name")).toList();
+        if (!awaitCondition(() -> listFsProvider(pageSize).equals(expected), Duration.ofSeconds(15))) {
+            throw new AssertionError("expected " + expected + " but listed " + listFsProvider(pageSize));
+        }
+    }
+
+    private List<String> listFsProvider(int pageSize) {
+        var names = new ArrayList<String>();
+        Cursor cursor = Cursor.Start.INSTANCE;
+        do {
+            var page = fsProvider.list(cursor, pageSize);
+            if (page.items().size() > pageSize) {
+                throw new AssertionError("page larger than " + pageSize);
+            }
+            page.items().forEach(r -> names.add(r.name()));
+            cursor = page.nextCursor();
+        } while (!(cursor instanceof Cursor.End));
+        return names;
+    }
+
+    @Then("reading {string} from the provider should return {string}")
+    public void reading_from_the_provider_should_return(String path, String content) {
+        var block = fsProvider.read(fsRoot.resolve(path).toUri());
+        var actual = switch (block) {
+            case ResourceBlock.Text text -> text.text();
+            case ResourceBlock.Binary binary -> new String(binary.blob(), StandardCharsets.UTF_8);
+            case null -> throw new AssertionError("nothing read from " + path);
+        };
+        if (!content.equals(actual)) {
+            throw new AssertionError("read " + actual + " from " + path);
+        }
+    }
+
+    @Then("reading {string} from the provider should find nothing")
+    public void reading_from_the_provider_should_find_nothing(String path) {
+        var block = fsProvider.read(fsRoot.resolve(path).toUri());
+        if (block != null) {
+            throw new AssertionError("read " + block.uri() + " outside the root");
+        }
+    }
+
+    @When("I subscribe to {string} on the provider")
+    public void i_subscribe_to_on_the_provider(String path) {
+        fsProvider.subscribe(fsRoot.resolve(path).toUri(), fsUpdates::add);
+    }
+
+    @When("the file {string} is written with {string}")
+    public void the_file_is_written_with(String path, String content) throws IOException {
+        fsListChanges.set(0);
+        write(path, content);
+    }
+
+    @Then("the provider should report an update to {string}")
+    public void the_provider_should_report_an_update_to(String path) {
+        var uri = fsRoot.resolve(path).toUri();
+        if (!awaitCondition(() -> fsUpdates.stream().anyMatch(u -> u.uri().equals(uri)), Duration.ofSeconds(15))) {
+            throw new AssertionError("no update for " + path);
+        }
+    }
+
+    @Then("the provider should report a list change")
+    public void the_provider_should_report_a_list_change() {
+        if (!awaitCondition(() -> fsListChanges.getAndSet(0) > 0, Duration.ofSeconds(15))) {
+            throw new AssertionError("no list change reported");
+        }
+    }
+
+    private void write(String path, String content) throws IOException {
+        var file = fsRoot.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
     @After
     public void closeConnection() {
         if (activeConnection != null) {
@@ -1817,6 +2588,33 @@ public final class ServerFeaturesSteps {
             }
             resourceSubscriptionHandle = null;
         }
+        resourceCacheBytes = null;
+        cachedResourceUpdates.set(0);
+        sessionSubscriptions.clear();
+        sessionUpdates.clear();
+        for (var server : sharedServers) {
+            try {
+                server.close();
+            } catch (IOException ignore) {
+            }
+        }
+        sharedServers.clear();
+        if (fsProvider != null) {
+            fsProvider.close();
+            fsProvider = null;
+        }
+        fsListChanges.set(0);
+        fsUpdates.clear();
+        if (fsBase != null) {
+            try (var paths = Files.walk(fsBase)) {
+                for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException ignore) {
+            }
+            fsBase = null;
+            fsRoot = null;
+        }
     }
 
     private boolean awaitCondition(BooleanSupplier condition, Duration timeout) {
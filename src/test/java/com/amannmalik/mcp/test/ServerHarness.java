@@ -30,8 +30,13 @@ public final class ServerHarness implements Closeable {
                 1L,
                 base.supportedVersions(),
                 5, 10, 20, 20,
+                1_000, 100, 50,
                 1_000L,
                 -32001,
+                64, 128, -32003,
+                base.toolResultCacheTtl(),
+                base.toolResultCacheBytes(),
+                base.maxPageSize(),
                 "mcp-it",
                 "MCP Test Server",
                 base.serverVersion(),
@@ -4,6 +4,7 @@ import com.amannmalik.mcp.api.*;
 import com.amannmalik.mcp.api.Notification.ProgressNotification;
 import com.amannmalik.mcp.codec.ProgressTokenCodec;
 import com.amannmalik.mcp.spi.Cursor;
+import com.amannmalik.mcp.spi.Pagination;
 import io.cucumber.datatable.DataTable;
 import io.cucumber.java.After;
 import io.cucumber.java.en.*;
@@ -14,12 +15,16 @@ import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public final class UtilitiesSteps {
+    private static final Pattern RUNNING_COUNT = Pattern.compile("\"text\"\\s*:\\s*\"(\\d+)\"");
     private final Map<String, String> requestStates = new HashMap<>();
     private final List<Map<String, String>> cancellationChecks = new ArrayList<>();
     private final List<Map<String, String>> bidirectionalPings = new ArrayList<>();
+    private final Map<String, String> rawPingReplies = new LinkedHashMap<>();
     private final Map<String, List<Double>> progressNotifications = new HashMap<>();
     private final List<Map<String, String>> progressScenarios = new ArrayList<>();
     private final List<Map<String, String>> progressTokenTypeScenarios = new ArrayList<>();
@@ -31,6 +36,7 @@ public final class UtilitiesSteps {
     private final List<Map<String, String>> utilityErrors = new ArrayList<>();
     private final List<String> invalidCancellationTypes = new ArrayList<>();
     private final List<Map<String, String>> loggingChecks = new ArrayList<>();
+    private final NavigableMap<String, String> keysetCatalogue = new TreeMap<>();
     private int invalidProgressNotifications;
     private int totalProgressNotifications;
     private McpHost activeConnection;
@@ -41,6 +47,12 @@ public final class UtilitiesSteps {
     private String lastPingId;
     private String lastPingResponseId;
     private JsonRpcMessage lastPingResponse;
+    private CompletableFuture<JsonRpcMessage> pendingRead;
+    private boolean pingOvertookRead;
+    private RawStdioSession elicitingSession;
+    private JsonObject heldElicitation;
+    private JsonObject elicitationPingReply;
+    private final List<Double> throttledProgress = new ArrayList<>();
     private boolean monitoring;
     private boolean pingTimedOut;
     private boolean connectionStale;
@@ -66,6 +78,9 @@ public final class UtilitiesSteps {
     private boolean unknownProgressIgnored;
     private List<String> dataset;
     private List<String> currentPage;
+    private long keysetVersion;
+    private Cursor keysetCursor = Cursor.Start.INSTANCE;
+    private List<String> keysetPage = List.of();
     private String nextCursor;
     private boolean serverSupportsPagination;
     private boolean missingCursorTreatedAsEnd;
@@ -101,7 +116,7 @@ public final class UtilitiesSteps {
                 base.principal(), base.clientCapabilities(), cmd, base.defaultReceiveTimeout(), base.processShutdownWait(),
                 base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                 base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
-                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(),
+                base.pingTimeout(), base.pingInterval(), base.progressPerSecond(), base.rateLimiterWindow(), base.resourceCacheBytes(),
                 base.verbose(), base.interactiveSampling(), base.rootDirectories(),
                 tlsConfig, CertificateValidationMode.STRICT, List.of(), true
         );
@@ -152,6 +167,58 @@ public final class UtilitiesSteps {
         }
     }
 
+    @Given("a call to {string} with ID {string} is running on the server")
+    public void a_call_with_id_is_running_on_the_server(String tool, String id) throws Exception {
+        var client = activeConnection.client(clientId);
+        var params = Json.createObjectBuilder()
+                .add("name", tool)
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        // nobody waits for this call; cancellation is expected to leave it unanswered
+        Thread.ofVirtual().start(() -> {
+            try {
+                client.request(new RequestId.StringId(id), RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5));
+            } catch (IOException | RuntimeException ignore) {
+            }
+        });
+        awaitRunningBlockingCalls(1, Duration.ofSeconds(5));
+    }
+
+    @When("I send a cancellation notification for request {string}")
+    public void i_send_a_cancellation_notification_for_request(String id) throws IOException {
+        var payload = Json.createObjectBuilder()
+                .add("requestId", id)
+                .add("reason", "no longer needed")
+                .build();
+        activeConnection.client(clientId).sendNotification(NotificationMethod.CANCELLED, payload);
+    }
+
+    @Then("the server should report {int} running blocking calls within {int} milliseconds")
+    public void the_server_should_report_running_blocking_calls_within(int expected, int millis) throws Exception {
+        awaitRunningBlockingCalls(expected, Duration.ofMillis(millis));
+    }
+
+    private void awaitRunningBlockingCalls(int expected, Duration timeout) throws IOException, InterruptedException {
+        var params = Json.createObjectBuilder()
+                .add("name", "running_tool")
+                .add("arguments", Json.createObjectBuilder())
+                .build();
+        var end = System.nanoTime() + timeout.toNanos();
+        var last = "";
+        while (true) {
+            var msg = activeConnection.client(clientId).request(RequestMethod.TOOLS_CALL, params, Duration.ofSeconds(5));
+            var matcher = RUNNING_COUNT.matcher(msg.toString());
+            last = matcher.find() ? matcher.group(1) : msg.toString();
+            if (last.equals(Integer.toString(expected))) {
+                return;
+            }
+            if (System.nanoTime() - end > 0) {
+                throw new AssertionError("expected " + expected + " running calls but was " + last);
+            }
+            Thread.sleep(50);
+        }
+    }
+
     @Then("the notification should be properly formatted")
     public void the_notification_should_be_properly_formatted() {
         if (lastCancellation == null) throw new AssertionError("no cancellation");
@@ -380,7 +447,7 @@ public final class UtilitiesSteps {
                     base.principal(), base.clientCapabilities(), base.commandSpec(), base.defaultReceiveTimeout(), base.processShutdownWait(),
                     base.defaultOriginHeader(), base.httpRequestTimeout(), base.enableKeepAlive(),
                     base.sessionIdByteLength(), base.initializeRequestTimeout(), base.strictVersionValidation(),
-                    base.pingTimeout(), Duration.ofMillis(interval), base.progressPerSecond(), base.rateLimiterWindow(),
+                    base.pingTimeout(), Duration.ofMillis(interval), base.progressPerSecond(), base.rateLimiterWindow(), base.resourceCacheBytes(),
                     base.verbose(), base.interactiveSampling(), base.rootDirectories(),
                     tlsConfig, CertificateValidationMode.STRICT, List.of(), true
             );
@@ -436,6 +503,161 @@ public final class UtilitiesSteps {
         if (!pingTimeoutHandlingConfigured) throw new AssertionError("ping timeout handling not configured");
     }
 
+    @When("I read the resource {string} without waiting for it")
+    public void i_read_the_resource_without_waiting_for_it(String uri) throws InterruptedException {
+        var client = activeConnection.client(clientId);
+        var params = Json.createObjectBuilder().add("uri", uri).build();
+        pendingRead = new CompletableFuture<>();
+        var read = pendingRead;
+        Thread.ofVirtual().start(() -> {
+            try {
+                read.complete(client.request(RequestMethod.RESOURCES_READ, params, Duration.ofSeconds(10)));
+            } catch (IOException | RuntimeException e) {
+                read.completeExceptionally(e);
+            }
+        });
+        // let the read reach the server before anything else is sent
+        Thread.sleep(200L);
+    }
+
+    @When("I send a ping while it is outstanding")
+    public void i_send_a_ping_while_it_is_outstanding() throws IOException {
+        lastPingResponse = activeConnection.client(clientId).request(RequestMethod.PING, null, Duration.ofSeconds(5));
+        pingOvertookRead = !pendingRead.isDone();
+    }
+
+    @Then("the ping should be answered before the read completes")
+    public void the_ping_should_be_answered_before_the_read_completes() throws Exception {
+        if (!lastPingResponse.getClass().getSimpleName().equals("JsonRpcResponse")) {
+            throw new AssertionError("ping failed: " + lastPingResponse);
+        }
+        if (!pingOvertookRead) {
+            throw new AssertionError("ping was answered only after the read completed");
+        }
+        var read = pendingRead.get(10, TimeUnit.SECONDS);
+        if (!read.getClass().getSimpleName().equals("JsonRpcResponse")) {
+            throw new AssertionError("read failed: " + read);
+        }
+    }
+
+    @When("a raw stdio client calls {string} without arguments and holds the elicitation")
+    public void a_raw_stdio_client_calls_without_arguments_and_holds_the_elicitation(String tool) throws Exception {
+        elicitingSession = RawStdioSession.start().initialize("{\"elicitation\":{}}");
+        elicitingSession.send("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\""
+                + tool + "\",\"arguments\":{}}}");
+        var message = elicitingSession.next(Duration.ofSeconds(5));
+        while (!"elicitation/create".equals(message.getString("method", null))) {
+            if (message.containsKey("id")) {
+                throw new AssertionError("call finished without eliciting: " + message);
+            }
+            message = elicitingSession.next(Duration.ofSeconds(5));
+        }
+        heldElicitation = message;
+    }
+
+    @When("the raw stdio client sends a ping before answering")
+    public void the_raw_stdio_client_sends_a_ping_before_answering() throws Exception {
+        elicitingSession.send("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"ping\"}");
+        var message = elicitingSession.next(Duration.ofSeconds(5));
+        while (!message.containsKey("id")) {
+            // list_changed announcements from the fixtures may interleave
+            message = elicitingSession.next(Duration.ofSeconds(5));
+        }
+        elicitationPingReply = message;
+    }
+
+    @Then("the ping should be answered while the call awaits the elicitation")
+    public void the_ping_should_be_answered_while_the_call_awaits_the_elicitation() {
+        if (!Json.createValue(2).equals(elicitationPingReply.get("id"))
+                || !JsonValue.EMPTY_JSON_OBJECT.equals(elicitationPingReply.get("result"))) {
+            throw new AssertionError("expected the ping reply first, got: " + elicitationPingReply);
+        }
+    }
+
+    @Then("the call should complete once the elicitation is accepted with {string}")
+    public void the_call_should_complete_once_the_elicitation_is_accepted_with(String msg) throws Exception {
+        elicitingSession.send(Json.createObjectBuilder()
+                .add("jsonrpc", "2.0")
+                .add("id", heldElicitation.get("id"))
+                .add("result", Json.createObjectBuilder()
+                        .add("action", "accept")
+                        .add("content", Json.createObjectBuilder().add("msg", msg)))
+                .build()
+                .toString());
+        var message = elicitingSession.next(Duration.ofSeconds(5));
+        while (!message.containsKey("id")) {
+            message = elicitingSession.next(Duration.ofSeconds(5));
+        }
+        var content = message.getJsonObject("result") == null ? null : message.getJsonObject("result").getJsonArray("content");
+        if (!Json.createValue(1).equals(message.get("id"))
+                || content == null
+                || !msg.equals(content.getJsonObject(0).getString("text", null))) {
+            throw new AssertionError("unexpected call result: " + message);
+        }
+    }
+
+    @When("a raw stdio session started with {string} lists resources with progress token {string}")
+    public void a_raw_stdio_session_started_with_lists_resources_with_progress_token(String options, String token) throws Exception {
+        throttledProgress.clear();
+        try (var session = RawStdioSession.start(options.split(" ")).initialize()) {
+            session.send("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"resources/list\",\"params\":{\"_meta\":{\"progressToken\":\""
+                    + token + "\"}}}");
+            var message = session.next(Duration.ofSeconds(5));
+            while (!message.containsKey("id")) {
+                if (NotificationMethod.PROGRESS.method().equals(message.getString("method"))) {
+                    throttledProgress.add(message.getJsonObject("params").getJsonNumber("progress").doubleValue());
+                }
+                message = session.next(Duration.ofSeconds(5));
+            }
+        }
+    }
+
+    @Then("the progress updates before the result should be {string}")
+    public void the_progress_updates_before_the_result_should_be(String expected) {
+        var values = Arrays.stream(expected.split(",")).map(String::trim).map(Double::valueOf).toList();
+        if (!values.equals(throttledProgress)) {
+            throw new AssertionError("expected progress " + values + " but got " + throttledProgress);
+        }
+    }
+
+    @When("a raw stdio session sends pings with these IDs:")
+    public void a_raw_stdio_session_sends_pings_with_these_ids(DataTable table) throws Exception {
+        rawPingReplies.clear();
+        try (var session = RawStdioSession.start().initialize()) {
+            for (var row : table.asMaps(String.class, String.class)) {
+                var id = row.get("id");
+                session.send("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"ping\"}");
+                var line = session.nextLine(Duration.ofSeconds(5));
+                while (line.contains("\"method\":")) {
+                    // list_changed announcements from the fixtures may interleave
+                    line = session.nextLine(Duration.ofSeconds(5));
+                }
+                rawPingReplies.put(id, line);
+            }
+        }
+    }
+
+    @Then("each ping reply should carry its request ID and an empty result")
+    public void each_ping_reply_should_carry_its_request_id_and_an_empty_result() {
+        rawPingReplies.forEach((id, line) -> {
+            JsonObject reply;
+            try (var reader = Json.createReader(new StringReader(line))) {
+                reply = reader.readObject();
+            } catch (JsonException e) {
+                throw new AssertionError("reply to " + id + " is not valid JSON: " + line, e);
+            }
+            JsonValue expectedId;
+            try (var reader = Json.createReader(new StringReader(id))) {
+                expectedId = reader.readValue();
+            }
+            if (!expectedId.equals(reply.get("id"))
+                    || !JsonValue.EMPTY_JSON_OBJECT.equals(reply.get("result"))
+                    || reply.size() != 3) {
+                throw new AssertionError("unexpected reply to " + id + ": " + line);
+            }
+        });
+    }
+
     @Given("I have sent a ping request")
     public void i_have_sent_a_ping_request() {
         lastPingId = "ping-timeout";
@@ -1143,6 +1365,84 @@ public final class UtilitiesSteps {
         }
     }
 
+    @Given("a sorted catalogue at version {int} with keys {string}")
+    public void a_sorted_catalogue_at_version_with_keys(int version, String keys) {
+        keysetCatalogue.clear();
+        Arrays.stream(keys.split(",")).map(String::trim).forEach(k -> keysetCatalogue.put(k, k));
+        keysetVersion = version;
+        keysetCursor = Cursor.Start.INSTANCE;
+        keysetPage = List.of();
+    }
+
+    @When("I request a keyset page of {int} entries")
+    public void i_request_a_keyset_page_of_entries(int size) {
+        var page = Pagination.page(keysetCatalogue, keysetVersion, keysetCursor, size);
+        keysetPage = page.items();
+        keysetCursor = page.nextCursor();
+    }
+
+    @Then("the keyset page should hold {string}")
+    public void the_keyset_page_should_hold(String keys) {
+        var expected = Arrays.stream(keys.split(",")).map(String::trim).toList();
+        if (!keysetPage.equals(expected)) {
+            throw new AssertionError("expected " + expected + " but got " + keysetPage);
+        }
+    }
+
+    @When("the catalogue entry {string} is removed and {string} is added")
+    public void the_catalogue_entry_is_removed_and_is_added(String removed, String added) {
+        keysetCatalogue.remove(removed);
+        keysetCatalogue.put(added, added);
+    }
+
+    @Then("the keyset cursor should be accepted as an opaque token")
+    public void the_keyset_cursor_should_be_accepted_as_an_opaque_token() {
+        var copy = new Cursor.Token(keysetToken().value());
+        var resumed = Cursor.lastKey(copy, keysetVersion).orElseThrow(() -> new AssertionError("no key"));
+        if (!resumed.equals(keysetPage.getLast())) {
+            throw new AssertionError("cursor resumes after " + resumed);
+        }
+    }
+
+    @Then("the keyset cursor should be rejected once its signature is altered")
+    public void the_keyset_cursor_should_be_rejected_once_its_signature_is_altered() {
+        var value = keysetToken().value();
+        var mac = value.lastIndexOf('.') + 1;
+        var forged = value.substring(0, mac) + (value.charAt(mac) == 'A' ? 'B' : 'A') + value.substring(mac + 1);
+        var token = new Cursor.Token(forged);
+        expectRejected(() -> Pagination.page(keysetCatalogue, keysetVersion, token, 2));
+    }
+
+    @Then("the keyset cursor should be rejected at catalogue version {int}")
+    public void the_keyset_cursor_should_be_rejected_at_catalogue_version(int version) {
+        var token = keysetToken();
+        expectRejected(() -> Pagination.page(keysetCatalogue, version, token, 2));
+    }
+
+    @Then("the cursor {string} should be rejected as malformed")
+    public void the_cursor_should_be_rejected_as_malformed(String value) {
+        expectRejected(() -> {
+            var token = new Cursor.Token(value);
+            Pagination.page(keysetCatalogue, keysetVersion, token, 2);
+        });
+    }
+
+    private Cursor.Token keysetToken() {
+        if (!(keysetCursor instanceof Cursor.Token token)) {
+            throw new AssertionError("expected a next cursor but got " + keysetCursor);
+        }
+        return token;
+    }
+
+    private static void expectRejected(Runnable action) {
+        try {
+            action.run();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new AssertionError("cursor accepted");
+    }
+
     // --- Integration and lifecycle -------------------------------------
     @Given("I have operations that use multiple utilities")
     public void i_have_operations_that_use_multiple_utilities() {
@@ -1245,6 +1545,10 @@ public final class UtilitiesSteps {
 
     @After
     public void closeConnection() {
+        if (elicitingSession != null) {
+            elicitingSession.close();
+            elicitingSession = null;
+        }
         try {
             if (activeConnection != null) {
                 activeConnection.close();
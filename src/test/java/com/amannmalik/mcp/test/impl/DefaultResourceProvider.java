@@ -8,9 +8,15 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 public final class DefaultResourceProvider implements ResourceProvider {
+    private static final AtomicInteger REVISION = new AtomicInteger(1);
+    private static final Map<URI, AtomicLong> READS = new ConcurrentHashMap<>();
+    private static final AtomicLong HINTED_PAGES = new AtomicLong();
+    private static final List<DefaultResourceProvider> INSTANCES = new CopyOnWriteArrayList<>();
     private final List<Resource> resources = new CopyOnWriteArrayList<>(DefaultServerFixtures.RESOURCES);
     private final Map<URI, Resource> byUri = new ConcurrentHashMap<>();
     private final Map<URI, ResourceBlock> content = new ConcurrentHashMap<>(DefaultServerFixtures.RESOURCE_CONTENT);
@@ -21,14 +27,57 @@ public final class DefaultResourceProvider implements ResourceProvider {
 
     public DefaultResourceProvider() {
         resources.forEach(r -> byUri.put(r.uri(), r));
+        INSTANCES.add(this);
+    }
+
+    static int revise() {
+        var revision = REVISION.incrementAndGet();
+        INSTANCES.forEach(p -> p.notifySubscribers(DefaultServerFixtures.REVISED_RESOURCE));
+        return revision;
+    }
+
+    static long reads(URI uri) {
+        var reads = READS.get(uri);
+        return reads == null ? 0L : reads.get();
+    }
+
+    static long hintedPages() {
+        return HINTED_PAGES.get();
+    }
+
+    static int revisedSubscriptions() {
+        return INSTANCES.stream()
+                .mapToInt(p -> p.subscribers.getOrDefault(DefaultServerFixtures.REVISED_RESOURCE, new CopyOnWriteArrayList<>()).size())
+                .sum();
     }
 
     @Override
     public ResourceBlock read(URI uri) {
         Objects.requireNonNull(uri, "uri");
+        READS.computeIfAbsent(uri, u -> new AtomicLong()).incrementAndGet();
+        if (DefaultServerFixtures.SLOW_RESOURCE.equals(uri)) {
+            try {
+                Thread.sleep(1_500L);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (DefaultServerFixtures.REVISED_RESOURCE.equals(uri)) {
+            return new ResourceBlock.Text(uri, "text/plain", "revision " + REVISION.get(), null);
+        }
         return content.get(uri);
     }
 
+    @Override
+    public ResourceBlock read(URI uri, ResourceTemplate template, Map<String, String> variables) {
+        if (!DefaultServerFixtures.NOTE_TEMPLATE.equals(template.uriTemplate())) {
+            return read(uri);
+        }
+        var text = new StringJoiner(" ");
+        new TreeMap<>(variables).forEach((name, value) -> text.add(name + "=" + value));
+        return new ResourceBlock.Text(uri, "text/plain", text.toString(), null);
+    }
+
     @Override
     public Optional<Resource> get(URI uri) {
         Objects.requireNonNull(uri, "uri");
@@ -40,6 +89,12 @@ public final class DefaultResourceProvider implements ResourceProvider {
         return Pagination.page(resources, cursor == null ? Cursor.Start.INSTANCE : cursor, Pagination.DEFAULT_PAGE_SIZE);
     }
 
+    @Override
+    public Pagination.Page<Resource> list(Cursor cursor, int pageSize) {
+        HINTED_PAGES.incrementAndGet();
+        return Pagination.page(resources, cursor == null ? Cursor.Start.INSTANCE : cursor, pageSize);
+    }
+
     @Override
     public Pagination.Page<ResourceTemplate> listTemplates(Cursor cursor) {
         return Pagination.page(templates, cursor == null ? Cursor.Start.INSTANCE : cursor, Pagination.DEFAULT_PAGE_SIZE);
@@ -77,6 +132,13 @@ public final class DefaultResourceProvider implements ResourceProvider {
         listChangedListeners.clear();
         subscribers.clear();
         changeSimulationStarted.set(false);
+        INSTANCES.remove(this);
+    }
+
+    private void notifySubscribers(URI uri) {
+        var title = get(uri).map(Resource::title).orElse(null);
+        subscribers.getOrDefault(uri, new CopyOnWriteArrayList<>())
+                .forEach(l -> l.accept(new ResourceUpdate(uri, title)));
     }
 
     private void removeSubscriber(URI uri, Consumer<ResourceUpdate> listener) {
@@ -8,6 +8,8 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -17,6 +19,9 @@ final class DefaultServerFixtures {
     static final List<Resource> RESOURCES;
     static final Map<URI, ResourceBlock> RESOURCE_CONTENT;
     static final List<ResourceTemplate> RESOURCE_TEMPLATES;
+    static final String NOTE_TEMPLATE = "memo://notes/{folder}/{id}{?rev}";
+    static final URI SLOW_RESOURCE = URI.create("memo://drafts/slow");
+    static final URI REVISED_RESOURCE = URI.create("memo://drafts/revised");
     static final List<Tool> TOOLS;
     static final Map<String, Function<JsonObject, ToolResult>> TOOL_HANDLERS;
     static final List<Prompt> PROMPTS;
@@ -24,6 +29,8 @@ final class DefaultServerFixtures {
     static final List<Ref> COMPLETION_REFS;
     static final List<CompletionEntry> COMPLETION_ENTRIES;
     private static final int MAX_COMPLETION_VALUES = 100;
+    private static final AtomicLong COUNTER = new AtomicLong();
+    private static final AtomicInteger RUNNING = new AtomicInteger();
 
     static {
         var annotations = new Annotations(Set.of(Role.USER), 0.5, Instant.parse("2024-01-01T00:00:00Z"));
@@ -63,13 +70,30 @@ final class DefaultServerFixtures {
                 7L,
                 annotations,
                 null);
+        // its content changes whenever revise_tool runs
+        var revisedDraft = new Resource(
+                REVISED_RESOURCE,
+                "revised_draft",
+                null,
+                null,
+                "text/plain",
+                null,
+                annotations,
+                null);
         SAMPLE_RESOURCE = sampleFile;
-        RESOURCES = List.of(sampleFile, projectFile, webResource, gitResource);
+        RESOURCES = List.of(sampleFile, projectFile, webResource, gitResource, revisedDraft);
+        // readable by URI although neither listed nor matched by a template
+        var unlisted = URI.create("memo://drafts/unlisted");
+        // shares a name prefix with the /sample root without lying inside it
+        var siblingFile = URI.create("file:///samples/example.txt");
         RESOURCE_CONTENT = Map.of(
                 sampleFile.uri(), new ResourceBlock.Text(sampleFile.uri(), "text/plain", "hello", null),
                 projectFile.uri(), new ResourceBlock.Text(projectFile.uri(), "text/plain", "fn main() {}", null),
                 webResource.uri(), new ResourceBlock.Text(webResource.uri(), "text/plain", "web", null),
-                gitResource.uri(), new ResourceBlock.Text(gitResource.uri(), "text/plain", "repo", null));
+                gitResource.uri(), new ResourceBlock.Text(gitResource.uri(), "text/plain", "repo", null),
+                unlisted, new ResourceBlock.Text(unlisted, "text/plain", "unlisted draft", null),
+                SLOW_RESOURCE, new ResourceBlock.Text(SLOW_RESOURCE, "text/plain", "slow draft", null),
+                siblingFile, new ResourceBlock.Text(siblingFile, "text/plain", "outside the roots", null));
         var template = new ResourceTemplate(
                 "file:///{path}",
                 "example_template",
@@ -78,7 +102,15 @@ final class DefaultServerFixtures {
                 "text/plain",
                 null,
                 null);
-        RESOURCE_TEMPLATES = List.of(template);
+        var noteTemplate = new ResourceTemplate(
+                NOTE_TEMPLATE,
+                "note_template",
+                null,
+                null,
+                "text/plain",
+                null,
+                null);
+        RESOURCE_TEMPLATES = List.of(template, noteTemplate);
         TOOLS = createTools();
         TOOL_HANDLERS = createToolHandlers();
         var promptTemplates = createPrompts();
@@ -143,6 +175,18 @@ final class DefaultServerFixtures {
         return textResult("ok");
     }
 
+    static ToolResult blockingResult() {
+        RUNNING.incrementAndGet();
+        try {
+            Thread.sleep(30_000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            RUNNING.decrementAndGet();
+        }
+        return textResult("ok");
+    }
+
     static ToolResult binaryResult(String type) {
         return new ToolResult(
                 Json.createArrayBuilder()
@@ -220,12 +264,63 @@ final class DefaultServerFixtures {
                         .add("message", Json.createObjectBuilder().add("type", "string")))
                 .add("required", Json.createArrayBuilder().add("message"))
                 .build();
+        var statusSchema = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("properties", Json.createObjectBuilder()
+                        .add("status", Json.createObjectBuilder()
+                                .add("enum", Json.createArrayBuilder().add("ok").add("degraded")))
+                        .add("contact", Json.createObjectBuilder()
+                                .add("type", "string")
+                                .add("format", "email")))
+                .add("required", Json.createArrayBuilder().add("status").add("contact"))
+                .build();
         var echoSchema = Json.createObjectBuilder()
                 .add("type", "object")
                 .add("properties", Json.createObjectBuilder()
                         .add("msg", Json.createObjectBuilder().add("type", "string")))
                 .add("required", Json.createArrayBuilder().add("msg"))
                 .build();
+        var keySchema = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("properties", Json.createObjectBuilder()
+                        .add("key", Json.createObjectBuilder().add("type", "string")))
+                .build();
+        var point = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("properties", Json.createObjectBuilder()
+                        .add("x", Json.createObjectBuilder().add("type", "integer"))
+                        .add("y", Json.createObjectBuilder().add("type", "integer")))
+                .add("required", Json.createArrayBuilder().add("x").add("y"));
+        var shapeSchema = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("$defs", Json.createObjectBuilder().add("point", point))
+                .add("properties", Json.createObjectBuilder()
+                        .add("shape", Json.createObjectBuilder()
+                                .add("oneOf", Json.createArrayBuilder()
+                                        .add(Json.createObjectBuilder().add("const", "circle"))
+                                        .add(Json.createObjectBuilder().add("const", "square"))))
+                        .add("at", Json.createObjectBuilder().add("$ref", "#/$defs/point"))
+                        .add("path", Json.createObjectBuilder()
+                                .add("type", "array")
+                                .add("items", Json.createObjectBuilder().add("$ref", "#/$defs/point"))
+                                .add("minItems", 1)))
+                .add("required", Json.createArrayBuilder().add("shape"))
+                .build();
+        var loopSchema = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("$defs", Json.createObjectBuilder()
+                        .add("self", Json.createObjectBuilder().add("$ref", "#/$defs/self")))
+                .add("$ref", "#/$defs/self")
+                .build();
+        var cycleSchema = Json.createObjectBuilder()
+                .add("type", "object")
+                .add("$defs", Json.createObjectBuilder()
+                        .add("a", Json.createObjectBuilder().add("$ref", "#/$defs/b"))
+                        .add("b", Json.createObjectBuilder()
+                                .add("allOf", Json.createArrayBuilder()
+                                        .add(Json.createObjectBuilder().add("$ref", "#/$defs/a")))))
+                .add("$ref", "#/$defs/a")
+                .build();
         return List.of(
                 new Tool(
                         "test_tool",
@@ -238,10 +333,29 @@ final class DefaultServerFixtures {
                 new Tool("error_tool", "Error Tool", "Always fails", schema, null, null, null),
                 new Tool("echo_tool", "Echo Tool", "Echoes the provided message", echoSchema, null, null, null),
                 new Tool("slow_tool", "Slow Tool", "Delays before responding", schema, null, null, null),
+                new Tool("blocking_tool", "Blocking Tool", "Blocks until cancelled", schema, null, null, null),
+                new Tool("running_tool", "Running Tool", "Reports how many blocking calls are running", schema, null, null, null),
+                new Tool("listings_tool", "Listings Tool", "Reports how often the tool catalogue was listed", schema, null, null, null),
+                new Tool("revise_tool", "Revise Tool", "Revises the draft resource", schema, null, null, null),
+                new Tool("reads_tool", "Reads Tool", "Reports how often a resource, by default the draft, was read", schema, null, null, null),
+                new Tool("subscriptions_tool", "Subscriptions Tool", "Reports how many provider subscriptions the draft resource has", schema, null, null, null),
+                new Tool("pages_tool", "Pages Tool", "Reports how many resource pages were listed at a client's page size", schema, null, null, null),
                 new Tool("image_tool", "Image Tool", "Returns image content", schema, null, null, null),
                 new Tool("audio_tool", "Audio Tool", "Returns audio content", schema, null, null, null),
                 new Tool("link_tool", "Link Tool", "Returns resource link", schema, null, null, null),
-                new Tool("embedded_tool", "Embedded Resource Tool", "Returns embedded resource", schema, null, null, null));
+                new Tool("embedded_tool", "Embedded Resource Tool", "Returns embedded resource", schema, null, null, null),
+                new Tool("shape_tool", "Shape Tool", "Accepts a shape with points", shapeSchema, null, null, null),
+                new Tool("status_tool", "Status Tool", "Reports its arguments as a status", schema, statusSchema, null, null),
+                new Tool("loop_tool", "Loop Tool", "Declares a schema that refers to itself", loopSchema, null, null, null),
+                new Tool("cycle_tool", "Cycle Tool", "Declares schemas that refer to each other", cycleSchema, null, null, null),
+                new Tool(
+                        "counter_tool",
+                        "Counter Tool",
+                        "Returns a new number on every execution",
+                        keySchema,
+                        null,
+                        new ToolAnnotations(null, true, false, true, false),
+                        null));
     }
 
     private static Map<String, Function<JsonObject, ToolResult>> createToolHandlers() {
@@ -250,10 +364,24 @@ final class DefaultServerFixtures {
                 Map.entry("error_tool", args -> structuredError("fail")),
                 Map.entry("echo_tool", args -> textResult(sanitize(args.getString("msg")))),
                 Map.entry("slow_tool", args -> slowResult()),
+                Map.entry("blocking_tool", args -> blockingResult()),
+                Map.entry("running_tool", args -> textResult(Integer.toString(RUNNING.get()))),
+                Map.entry("listings_tool", args -> textResult(Long.toString(DefaultToolProvider.listings()))),
+                Map.entry("revise_tool", args -> textResult(Integer.toString(DefaultResourceProvider.revise()))),
+                Map.entry("reads_tool", args -> textResult(Long.toString(DefaultResourceProvider.reads(
+                        URI.create(args.getString("uri", REVISED_RESOURCE.toString())))))),
+                Map.entry("subscriptions_tool", args -> textResult(Integer.toString(DefaultResourceProvider.revisedSubscriptions()))),
+                Map.entry("pages_tool", args -> textResult(Long.toString(DefaultResourceProvider.hintedPages()))),
                 Map.entry("image_tool", args -> binaryResult("image")),
                 Map.entry("audio_tool", args -> binaryResult("audio")),
                 Map.entry("link_tool", args -> linkResult(SAMPLE_RESOURCE.uri().toString())),
-                Map.entry("embedded_tool", args -> embeddedResult(SAMPLE_RESOURCE)));
+                Map.entry("embedded_tool", args -> embeddedResult(SAMPLE_RESOURCE)),
+                Map.entry("shape_tool", args -> textResult(args.getString("shape"))),
+                Map.entry("status_tool", args -> new ToolResult(
+                        Json.createArrayBuilder().add(textBlock(args.toString())).build(), args, false, null)),
+                Map.entry("loop_tool", args -> textResult("unreachable")),
+                Map.entry("cycle_tool", args -> textResult("unreachable")),
+                Map.entry("counter_tool", args -> textResult(Long.toString(COUNTER.incrementAndGet()))));
     }
 
     private static List<PromptTemplateData> createPrompts() {
@@ -7,9 +7,11 @@ import java.io.Closeable;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 public final class DefaultToolProvider implements ToolProvider {
+    private static final AtomicLong LISTINGS = new AtomicLong();
     private final List<Tool> tools = new CopyOnWriteArrayList<>(DefaultServerFixtures.TOOLS);
     private final Map<String, Tool> byName = new HashMap<>();
     private final Map<String, Function<JsonObject, ToolResult>> handlers = new HashMap<>(DefaultServerFixtures.TOOL_HANDLERS);
@@ -20,8 +22,13 @@ public final class DefaultToolProvider implements ToolProvider {
         tools.forEach(tool -> byName.put(tool.name(), tool));
     }
 
+    static long listings() {
+        return LISTINGS.get();
+    }
+
     @Override
     public Pagination.Page<Tool> list(Cursor cursor) {
+        LISTINGS.incrementAndGet();
         return Pagination.page(tools, cursor == null ? Cursor.Start.INSTANCE : cursor, Pagination.DEFAULT_PAGE_SIZE);
     }
 
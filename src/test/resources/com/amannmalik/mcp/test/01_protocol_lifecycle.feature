@@ -349,6 +349,14 @@ Feature: MCP Connection Lifecycle
     Then I should send a cancellation notification
     And stop waiting for the response
 
+  @messaging @timeouts
+  Scenario: Pending request expires at its deadline
+    # Tests specification/2025-06-18/basic/lifecycle.mdx:207-212 (Timeout implementation)
+    Given I have an established MCP connection
+    When I call "slow_tool" with a 20 millisecond timeout
+    Then the request should fail within 1000 milliseconds
+    And the connection should still answer a ping
+
   @messaging @progress
   Scenario: Long-running request progress tracking
     # Tests specification/2025-06-18/basic/lifecycle.mdx:217-221 (Progress timeout reset)
@@ -68,6 +68,75 @@ Feature: MCP Server Features
       | tool execution failure      | Tool error     | none          |
     Then I should receive appropriate error responses for each scenario
 
+  @tools @schema
+  Scenario: Tool arguments validated against a composed input schema
+    # Tests specification/2025-06-18/server/tools.mdx:381-425 (Error handling)
+    # with local $ref pointers, oneOf, array items and nested required fields
+    Given the server has a tool named "shape_tool"
+    When I call the tool with each of these arguments:
+      | arguments                                                     | outcome  |
+      | {"shape":"circle","at":{"x":1,"y":2}}                         | accepted |
+      | {"shape":"square","path":[{"x":0,"y":0},{"x":3,"y":4}]}       | accepted |
+      | {"shape":"hexagon"}                                           | rejected |
+      | {"shape":"circle","at":{"x":1}}                               | rejected |
+      | {"shape":"circle","at":{"x":1,"y":2,"z":3}}                   | rejected |
+      | {"shape":"square","path":[{"x":0,"y":0},{"x":"a","y":4}]}     | rejected |
+      | {"shape":"square","path":[]}                                  | rejected |
+    Then each call should have the expected outcome
+
+  @tools @schema
+  Scenario: Structured tool results are checked against the output schema
+    # Tests specification/2025-06-18/server/tools.mdx:306-380 (Output schema)
+    Given the server has a tool named "status_tool"
+    When I call the tool with each of these arguments:
+      | arguments                                          | outcome  |
+      | {"status":"ok","contact":"ops@example.com"}        | accepted |
+      | {"status":"degraded","contact":"ops@example.com"}  | accepted |
+      | {"status":"down","contact":"ops@example.com"}      | rejected |
+      | {"status":"ok","contact":"not an address"}         | rejected |
+      | {"contact":"ops@example.com"}                      | rejected |
+    Then each call should have the expected outcome
+
+  @tools @schema
+  Scenario: Tool schemas with circular references are rejected
+    # Tests specification/2025-06-18/server/tools.mdx:381-425 (Error handling)
+    # A $ref cycle that never descends into the arguments cannot be evaluated
+    When I call each of these tools without arguments:
+      | tool       | error                              |
+      | loop_tool  | Invalid tool schema: Circular $ref |
+      | cycle_tool | Invalid tool schema: Circular $ref |
+    Then each call should fail with the expected error
+
+  @tools @caching
+  Scenario: Results of read-only idempotent tools are reused
+    # Tests specification/2025-06-18/server/tools.mdx:191-196 (Tool annotations)
+    # A tool marked readOnlyHint and idempotentHint is not re-executed for the same arguments
+    Given the server was started with "--tool-result-cache-ttl-ms 30000 --tool-result-cache-bytes 1048576"
+    And the server has a tool named "counter_tool"
+    When I call the tool with argument "key" set to "a"
+    And I call the tool with argument "key" set to "a"
+    Then the result should match the previous result
+    When I call the tool with argument "key" set to "b"
+    Then the result should differ from the previous result
+
+  @tools @caching
+  Scenario: Tool results are not reused unless caching is configured
+    # Tests specification/2025-06-18/server/tools.mdx:191-196 (Tool annotations)
+    Given the server has a tool named "counter_tool"
+    When I call the tool with argument "key" set to "a"
+    And I call the tool with argument "key" set to "a"
+    Then the result should differ from the previous result
+
+  @tools @overload
+  Scenario: Calls beyond a tool's concurrency limit and queue are shed
+    # Tests specification/2025-06-18/server/tools.mdx:381-425 (Error handling)
+    # One call runs and one waits; the rest are rejected at once with the overload code
+    Given the server was started with "--tool-concurrency-limit 1 --tool-concurrency-queue 1"
+    When I make 4 concurrent calls to "slow_tool"
+    Then at least one call should fail with error code -32003
+    And at least one call should succeed
+    And a further call to "slow_tool" should succeed
+
   @tools @notifications
   Scenario: Tool list change notifications
     # Tests specification/2025-06-18/server/tools.mdx:142-152 (List changed notification)
@@ -76,6 +145,16 @@ Feature: MCP Server Features
     When the server's tool list changes
     Then I should receive a "notifications/tools/list_changed" notification
 
+  @tools @caching
+  Scenario: Tool listings are reused until the catalogue changes
+    # Tests specification/2025-06-18/server/tools.mdx:142-152 (List changed notification)
+    Given the server has tools capability with "listChanged" enabled
+    And I have subscribed to tool updates
+    When I list tools twice in a row
+    Then the second listing should not reach the tool provider
+    When the server's tool list changes
+    Then the next tool listing should reach the tool provider
+
   @tools @content-types
   Scenario: Tool result content types
     # Tests specification/2025-06-18/server/tools.mdx:201-296 (Content types)
@@ -123,6 +202,21 @@ Feature: MCP Server Features
     Then I should receive paginated resource results
     And the response should include appropriate resource cursor information
 
+  @resources @pagination
+  Scenario: Streaming a resource catalogue with a page-size hint
+    # Tests specification/2025-06-18/server/utilities/pagination.mdx (Pagination flow)
+    When I stream the resources with a page size of 2
+    Then the stream should list every resource in catalogue order
+    And the server should have listed 3 resource pages
+
+  @resources @pagination
+  Scenario: Page-size hints are capped at the server's maximum
+    # Tests specification/2025-06-18/server/utilities/pagination.mdx (Pagination flow)
+    Given the server was started with "--max-page-size 2"
+    When I stream the resources with a page size of 100
+    Then the stream should list every resource in catalogue order
+    And the server should have listed 3 resource pages
+
   @resources @reading
   Scenario: Resource content reading
     # Tests specification/2025-06-18/server/resources.mdx:126-161 (Reading resources)
@@ -146,6 +240,47 @@ Feature: MCP Server Features
       | description | string | false    |
       | mimeType    | string | false    |
 
+  @resources @templates
+  Scenario: Reading resources through a template
+    # Tests specification/2025-06-18/server/resources.mdx:163-197 (Resource templates)
+    Given the server supports resource templates
+    When I read resources through the templates:
+      | uri                        | outcome                 |
+      | memo://notes/work/42       | folder=work id=42       |
+      | memo://notes/work/42?rev=3 | folder=work id=42 rev=3 |
+      | memo://notes/work          | Resource not found      |
+    Then each templated read should have the expected outcome
+
+  @resources @templates
+  Scenario: Reading a resource that no listing or template covers
+    # Tests specification/2025-06-18/server/resources.mdx:126-161 (Reading resources)
+    Given the server supports resource templates
+    When I read resources through the templates:
+      | uri                    | outcome            |
+      | memo://drafts/unlisted | unlisted draft     |
+      | memo://drafts/missing  | Resource not found |
+    Then each templated read should have the expected outcome
+
+  @resources @roots
+  Scenario: Reads are confined to the client's roots
+    # Tests specification/2025-06-18/client/roots.mdx:165-193 (Security and implementation guidelines)
+    # /samples shares a name prefix with the /sample root but lies outside it
+    When I read these files against my roots:
+      | uri                         | outcome            |
+      | file:///sample/example.txt  | hello              |
+      | file:///samples/example.txt | Resource not found |
+    Then each read should be confined to my roots
+
+  @resources @roots
+  Scenario: Reads outside the roots never reach the provider
+    # Tests specification/2025-06-18/client/roots.mdx:165-193 (Security and implementation guidelines)
+    # access is decided from metadata and roots before any content is loaded
+    When I read these files against my roots:
+      | uri                         | outcome            |
+      | file:///samples/example.txt | Resource not found |
+    And I read "file:///samples/example.txt" 3 more times
+    Then the provider should not have read the denied file again
+
   @resources @subscriptions
   Scenario: Resource change subscriptions
     # Tests specification/2025-06-18/server/resources.mdx:211-240 (Subscriptions)
@@ -166,6 +301,65 @@ Feature: MCP Server Features
     Then I should receive unsubscription confirmation
     And a subsequent "resources/unsubscribe" request should result in error
 
+  @resources @subscriptions
+  Scenario: Subscribe response precedes the first resource update
+    # Tests specification/2025-06-18/server/resources.mdx:211-240 (Subscriptions)
+    When a raw stdio session subscribes to "git://repo/file"
+    Then the subscribe response should be written before the first "notifications/resources/updated"
+
+  @resources @subscriptions
+  Scenario: Sessions in one process share a resource subscription
+    # Tests specification/2025-06-18/server/resources.mdx:211-240 (Subscriptions)
+    Given sessions "first" and "second" are served by one server process
+    When session "first" subscribes to "memo://drafts/revised"
+    And session "second" subscribes to "memo://drafts/revised"
+    Then the provider should hold 1 subscription to the draft resource
+    When session "first" revises the draft resource
+    Then sessions "first" and "second" should both be notified of the update
+    When session "first" unsubscribes from the draft resource
+    Then the provider should hold 1 subscription to the draft resource
+    When session "second" unsubscribes from the draft resource
+    Then the provider should hold 0 subscriptions to the draft resource
+
+  @resources @caching
+  Scenario: Resource reads are revalidated with an etag
+    # Tests specification/2025-06-18/server/resources.mdx:126-161 (Reading resources)
+    When I read "memo://drafts/revised" through the client
+    Then a read of "memo://drafts/revised" with its current etag should be not modified
+    When I read "memo://drafts/revised" through the client
+    Then the read should return "revision 1"
+    When the draft resource is revised
+    Then a read of "memo://drafts/revised" with that etag should return "revision 2"
+    When I read "memo://drafts/revised" through the client
+    Then the read should return "revision 2"
+
+  @resources @caching @subscriptions
+  Scenario: Subscribed resources are read from the client cache until updated
+    # Tests specification/2025-06-18/server/resources.mdx:211-240 (Subscriptions)
+    Given I subscribe to "memo://drafts/revised" through the client
+    When I read "memo://drafts/revised" through the client
+    And I read "memo://drafts/revised" through the client
+    Then the read should return "revision 1"
+    And the server should have read the draft resource 1 time
+    When the draft resource is revised
+    And I read "memo://drafts/revised" through the client
+    Then the read should return "revision 2"
+    And the server should have read the draft resource 2 times
+
+  @resources @caching
+  Scenario: Client resource cache evicts the least recently used contents
+    # Tests specification/2025-06-18/server/resources.mdx:211-240 (Subscriptions)
+    # "revision 1" and "unlisted draft" take 20 and 28 bytes, so only one fits
+    Given the client caches at most 40 bytes of resource contents
+    And I subscribe to "memo://drafts/revised" through the client
+    When I read "memo://drafts/revised" through the client
+    And I read "memo://drafts/revised" through the client
+    Then the server should have read the draft resource 1 time
+    When I read "memo://drafts/unlisted" through the client
+    And I read "memo://drafts/revised" through the client
+    Then the read should return "revision 1"
+    And the server should have read the draft resource 2 times
+
   @resources @notifications
   Scenario: Resource list change notifications
     # Tests specification/2025-06-18/server/resources.mdx:199-209 (List changed notification)
@@ -173,6 +367,16 @@ Feature: MCP Server Features
     When the server's resource list changes
     Then I should receive a "notifications/resources/list_changed" notification
 
+  @resources @catalog
+  Scenario: Incremental resource catalogue
+    # Tests specification/2025-06-18/server/resources.mdx:199-209 (List changed notification)
+    Given the server has resources capability with "listChanged" enabled
+    When I request the resource catalogue changes since ""
+    Then the catalogue changes should be a reset holding every listed resource
+    When I request the resource catalogue changes since the returned version
+    Then the catalogue changes should be empty
+    And the mirrored resources should match the resource list
+
   @resources @annotations
   Scenario: Resource annotations handling
     # Tests specification/2025-06-18/server/resources.mdx:308-337 (Annotations)
@@ -195,6 +399,33 @@ Feature: MCP Server Features
       | file   | Filesystem-like resources     |
       | git    | Git version control resources |
 
+  @resources @filesystem
+  Scenario: Filesystem resource provider indexes and watches its roots
+    # Tests specification/2025-06-18/server/resources.mdx:355-364 (file:// URI scheme)
+    # Tests specification/2025-06-18/server/resources.mdx:199-241 (List changes and subscriptions)
+    Given a filesystem resource provider over a directory containing:
+      | path      | content |
+      | a.txt     | alpha   |
+      | docs/b.md | beta    |
+    Then listing the provider 1 resource per page should yield:
+      | name      |
+      | a.txt     |
+      | docs/b.md |
+    And reading "docs/b.md" from the provider should return "beta"
+    And reading "../outside.txt" from the provider should find nothing
+    When I subscribe to "a.txt" on the provider
+    And the file "a.txt" is written with "alpha, revised"
+    Then the provider should report an update to "a.txt"
+    And the provider should report a list change
+    And reading "a.txt" from the provider should return "alpha, revised"
+    When the file "c.txt" is written with "gamma"
+    Then the provider should report a list change
+    And listing the provider 2 resources per page should yield:
+      | name      |
+      | a.txt     |
+      | c.txt     |
+      | docs/b.md |
+
   @resources @error-handling
   Scenario: Resource error handling
     # Tests specification/2025-06-18/server/resources.mdx:374-395 (Error handling)
@@ -400,6 +631,26 @@ Feature: MCP Server Features
     And reject requests with invalid or dangerous parameters
     And implement appropriate rate limiting
 
+  @security @rate-limiting
+  Scenario: Tool rate limit refills gradually
+    # Tests specification/2025-06-18/server/tools.mdx:427-442 (Rate limit tool invocations)
+    # Permits return one at a time within the window rather than all at its end
+    Given the server has tools available
+    When I call "test_tool" until the server reports rate limiting
+    Then at least 2 calls should have been accepted first
+    When I wait 400 milliseconds
+    Then a call to "test_tool" should succeed
+
+  @security @rate-limiting
+  Scenario: Request quotas reject calls beyond each layer's rate
+    # Tests specification/2025-06-18/server/tools.mdx:427-442 (Rate limit tool invocations)
+    When I exceed each request quota with "test_tool":
+      | option                          | rejection                         |
+      | --global-requests-per-second    | Server rate limit exceeded        |
+      | --principal-requests-per-second | Rate limit exceeded for principal |
+      | --session-requests-per-second   | Rate limit exceeded for session   |
+    Then each quota should reject the third call with a retryAfterMs hint
+
   @security @access-control
   Scenario: Resource access control validation
     # Tests specification/2025-06-18/server/resources.mdx:400-401 (Access controls)
@@ -71,6 +71,14 @@ Feature: MCP Protocol Utilities
     Then I should ignore all invalid notifications
     And maintain the fire-and-forget nature of notifications
 
+  @cancellation @tools
+  Scenario: Cancelling a running tool call stops its worker
+    # Tests specification/2025-06-18/basic/utilities/cancellation.mdx:38-41 (Behavior requirements)
+    Given I have an established MCP connection for utilities
+    And a call to "blocking_tool" with ID "blocking-1" is running on the server
+    When I send a cancellation notification for request "blocking-1"
+    Then the server should report 0 running blocking calls within 2000 milliseconds
+
   @ping @connectivity
   Scenario: Basic ping request and response
     # Tests specification/2025-06-18/basic/utilities/ping.mdx:14-39 (Message format and behavior)
@@ -80,6 +88,35 @@ Feature: MCP Protocol Utilities
     And the response should have the same ID "ping-123"
     And the response format should be valid JSON-RPC
 
+  @ping @framing
+  Scenario: Ping replies echo each request ID exactly
+    # Tests specification/2025-06-18/basic/utilities/ping.mdx:14-39 (Message format and behavior)
+    # replies reuse one encoded result, so only the ID differs between them
+    When a raw stdio session sends pings with these IDs:
+      | id               |
+      | 7                |
+      | 9007199254740993 |
+      | "ping-a"         |
+      | "say \"hi\" ünï" |
+    Then each ping reply should carry its request ID and an empty result
+
+  @ping @priority
+  Scenario: Ping is answered while a slow request is in progress
+    # Tests specification/2025-06-18/basic/utilities/ping.mdx:29-39 (Behavior requirements)
+    Given I have an established MCP connection for utilities
+    When I read the resource "memo://drafts/slow" without waiting for it
+    And I send a ping while it is outstanding
+    Then the ping should be answered before the read completes
+
+  @ping @priority
+  Scenario: Ping is answered while the server awaits an elicitation
+    # Tests specification/2025-06-18/basic/utilities/ping.mdx:29-39 (Behavior requirements)
+    # the tool call waits for the client's answer without blocking the session
+    When a raw stdio client calls "echo_tool" without arguments and holds the elicitation
+    And the raw stdio client sends a ping before answering
+    Then the ping should be answered while the call awaits the elicitation
+    And the call should complete once the elicitation is accepted with "hello"
+
   @ping @health-monitoring
   Scenario: Connection health monitoring with ping
     # Tests specification/2025-06-18/basic/utilities/ping.mdx:46-55 (Usage patterns)
@@ -187,6 +224,13 @@ Feature: MCP Protocol Utilities
     And each notification should reference the token "progress-abc123"
     And progress notifications should include current progress value
 
+  @progress @throttling
+  Scenario: Throttled progress is coalesced but always completes
+    # Tests specification/2025-06-18/basic/utilities/progress.mdx:60-69 (Behavior requirements)
+    # one update per second lets the start through, coalesces the middle one and still sends completion
+    When a raw stdio session started with "--progress-per-second 1" lists resources with progress token "throttled"
+    Then the progress updates before the result should be "0.0, 1.0"
+
   @progress @notification-format
   Scenario: Progress notification message format
     # Tests specification/2025-06-18/basic/utilities/progress.mdx:35-53 (Notification format)
@@ -394,6 +438,21 @@ Feature: MCP Protocol Utilities
     Then I should return appropriate error responses for utilities
     And use JSON-RPC error code -32602 for invalid parameters
 
+  @pagination @keyset
+  Scenario: Keyset cursors survive catalogue changes and reject tampering
+    # Tests specification/2025-06-18/server/utilities/pagination.mdx:83-87 (Server guidelines)
+    Given a sorted catalogue at version 1 with keys "a, b, c, d, e"
+    When I request a keyset page of 2 entries
+    Then the keyset page should hold "a, b"
+    When the catalogue entry "c" is removed and "bb" is added
+    And I request a keyset page of 2 entries
+    Then the keyset page should hold "bb, d"
+    And the keyset cursor should be accepted as an opaque token
+    And the keyset cursor should be rejected once its signature is altered
+    And the keyset cursor should be rejected at catalogue version 2
+    And the cursor "k1.3.Yg" should be rejected as malformed
+    And the cursor "MA" should be rejected as malformed
+
   @integration @utility-combinations
   Scenario: Combined utility feature usage
     # Tests integration between different utility features